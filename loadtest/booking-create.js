@@ -0,0 +1,63 @@
+// Throughput and tail latency of POST /booking/new, used to compare execution modes.
+//
+// Run the service once per mode and point k6 at it with the same settings:
+//   platform threads: ./mvnw spring-boot:run
+//   virtual threads:  ./mvnw -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual
+//   reactive:         ./mvnw spring-boot:run -Dspring-boot.run.profiles=reactive
+//
+//   k6 run -e TOKEN=<jwt> -e EVENT_ID=1 -e MODE=platform --summary-export=target/loadtest-platform.json loadtest/booking-create.js
+//   k6 run -e TOKEN=<jwt> -e EVENT_ID=1 -e MODE=virtual  --summary-export=target/loadtest-virtual.json  loadtest/booking-create.js
+//   k6 run -e TOKEN=<jwt> -e EVENT_ID=1 -e MODE=reactive --summary-export=target/loadtest-reactive.json loadtest/booking-create.js
+//
+// Compare http_reqs (throughput) and the p(99) of http_req_duration between the exports.
+// "Event is full" answers are expected once capacity runs out and still count as served requests. Above the
+// admission rate, requests get 202 with a waiting room ticket and come back with it after Retry-After.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+const EVENT_ID = Number(__ENV.EVENT_ID || 1);
+const USER_ID = Number(__ENV.USER_ID || 1);
+
+export const options = {
+    scenarios: {
+        create: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            stages: [
+                { target: 500, duration: '30s' },
+                { target: 2000, duration: '1m' },
+                { target: 2000, duration: '1m' },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    tags: { mode: __ENV.MODE || 'platform' },
+};
+
+export default function () {
+    let ticket = null;
+    let response;
+    do {
+        const headers = {
+            'Content-Type': 'application/json',
+            Authorization: `Bearer ${__ENV.TOKEN}`,
+        };
+        if (ticket) {
+            headers['Admission-Ticket'] = ticket;
+            sleep(Number(response.headers['Retry-After'] || 1));
+        }
+        response = http.post(
+            `${BASE_URL}/booking/new`,
+            JSON.stringify({ userId: USER_ID, eventId: EVENT_ID }),
+            { headers },
+        );
+        ticket = response.status === 202 ? response.json('ticket') : null;
+    } while (ticket);
+    check(response, {
+        'answered': (r) => r.status === 200 || r.status === 409 || r.status === 500,
+    });
+}
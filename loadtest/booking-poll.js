@@ -0,0 +1,31 @@
+// Status polling, GET /booking/{id}, the bulk of the traffic. Mostly waiting on Redis and Postgres, so it shows
+// how many concurrent requests each execution mode carries with its threads.
+//
+// Start the service in one mode (see booking-create.js), then:
+//   k6 run -e TOKEN=<jwt> -e BOOKING_ID=1 -e MODE=reactive --summary-export=target/loadtest-poll-reactive.json loadtest/booking-poll.js
+//
+// The token must belong to the booking's owner or an admin.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+const BOOKING_ID = Number(__ENV.BOOKING_ID || 1);
+
+export const options = {
+    scenarios: {
+        poll: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 2000),
+            duration: '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    tags: { mode: __ENV.MODE || 'platform' },
+};
+
+export default function () {
+    const response = http.get(`${BASE_URL}/booking/${BOOKING_ID}`, {
+        headers: { Authorization: `Bearer ${__ENV.TOKEN}` },
+    });
+    check(response, { 'ok': (r) => r.status === 200 });
+}
@@ -0,0 +1,21 @@
+package org.yunusgedik.booking.Controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.yunusgedik.booking.Model.Admission.AdmissionTicket;
+import org.yunusgedik.booking.Service.AdmissionPendingException;
+
+@RestControllerAdvice
+@Profile("!reactive")
+public class AdmissionExceptionHandler {
+
+    @ExceptionHandler(AdmissionPendingException.class)
+    public ResponseEntity<AdmissionTicket> pending(AdmissionPendingException e) {
+        return ResponseEntity.accepted()
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+            .body(e.getTicket());
+    }
+}
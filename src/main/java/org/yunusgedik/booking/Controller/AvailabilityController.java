@@ -0,0 +1,33 @@
+package org.yunusgedik.booking.Controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yunusgedik.booking.Model.Inventory.Availability;
+import org.yunusgedik.booking.Service.AvailabilityService;
+
+@RestController
+@RequestMapping("/booking/availability")
+@Profile("!reactive")
+public class AvailabilityController {
+
+    AvailabilityService availabilityService;
+
+    AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @GetMapping("/{eventId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public Availability get(@PathVariable Long eventId) {
+        return availabilityService.get(eventId);
+    }
+
+    @GetMapping(value = "/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public SseEmitter stream(@PathVariable Long eventId) {
+        return availabilityService.subscribe(eventId);
+    }
+}
@@ -1,45 +1,126 @@
 package org.yunusgedik.booking.Controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingBatchResult;
 import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingPage;
+import org.yunusgedik.booking.Service.AdmissionService;
 import org.yunusgedik.booking.Service.BookingService;
+import org.yunusgedik.booking.Service.EventCommandProcessor;
+import org.yunusgedik.booking.Service.IdempotencyService;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/booking")
+@Profile("!reactive")
 public class BookingController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String ADMISSION_TICKET = "Admission-Ticket";
+
     BookingService bookingService;
+    IdempotencyService idempotencyService;
+    AdmissionService admissionService;
+    EventCommandProcessor eventCommandProcessor;
 
-    BookingController(BookingService bookingService){
+    BookingController(
+        BookingService bookingService,
+        IdempotencyService idempotencyService,
+        AdmissionService admissionService,
+        EventCommandProcessor eventCommandProcessor
+    ){
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+        this.admissionService = admissionService;
+        this.eventCommandProcessor = eventCommandProcessor;
     }
 
     @GetMapping()
-    @PreAuthorize("hasRole('ADMIN') or @belongCheck.isOwner(#id, principal)")
+    @PreAuthorize("hasRole('ADMIN') or @belongCheck.isViewer(#id, principal)")
     public Booking getByParam(@RequestParam(name = "id") Long id) {
         return bookingService.get(id);
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @belongCheck.isOwner(#id, principal)")
+    @PreAuthorize("hasRole('ADMIN') or @belongCheck.isViewer(#id, principal)")
     public Booking get(@PathVariable Long id) {
         return bookingService.get(id);
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Booking> getAll() {
-        return bookingService.getAll();
+    public BookingPage getAll(
+        @ModelAttribute BookingFilter filter,
+        @RequestParam(name = "afterId", required = false) Long afterId,
+        @RequestParam(name = "size", defaultValue = "100") int size
+    ) {
+        return bookingService.getAll(filter, afterId, size);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void export(@ModelAttribute BookingFilter filter, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        bookingService.export(filter, response.getOutputStream());
     }
 
     @PostMapping("/new")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public Booking create(@RequestBody BookingDTO bookingDTO) {
-        return this.bookingService.create(bookingDTO);
+    public Booking create(
+        @RequestBody BookingDTO bookingDTO,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @RequestHeader(name = ADMISSION_TICKET, required = false) String admissionTicket,
+        @AuthenticationPrincipal Long userId
+    ) {
+        return admitted(
+            scopedKey(userId, "create", idempotencyKey),
+            bookingDTO,
+            admissionTicket,
+            () -> this.eventCommandProcessor.create(bookingDTO)
+        );
+    }
+
+    // Holds the seat until the booking is confirmed, see booking.hold.ttl
+    @PostMapping("/hold")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public Booking hold(
+        @RequestBody BookingDTO bookingDTO,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @RequestHeader(name = ADMISSION_TICKET, required = false) String admissionTicket,
+        @AuthenticationPrincipal Long userId
+    ) {
+        return admitted(
+            scopedKey(userId, "hold", idempotencyKey),
+            bookingDTO,
+            admissionTicket,
+            () -> this.eventCommandProcessor.hold(bookingDTO)
+        );
+    }
+
+    // Up to booking.batch.max-size seats in one request, not something to let past the waiting room
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<BookingBatchResult> createBatch(
+        @RequestBody List<BookingDTO> bookingDTOs,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @AuthenticationPrincipal Long userId
+    ) {
+        return Arrays.asList(idempotencyService.execute(
+            scopedKey(userId, "batch", idempotencyKey),
+            bookingDTOs.toString(),
+            BookingBatchResult[].class,
+            () -> this.bookingService.createBatch(bookingDTOs).toArray(BookingBatchResult[]::new)
+        ));
     }
 
     @PatchMapping("/update/{id}")
@@ -56,14 +137,45 @@ public class BookingController {
 
     @PostMapping("/{id}/confirm")
     @PreAuthorize("hasRole('ADMIN') or @belongCheck.isOwner(#id, principal)")
-    public Booking confirm(@PathVariable Long id) {
-        return bookingService.confirm(id);
+    public Booking confirm(
+        @PathVariable Long id,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @AuthenticationPrincipal Long userId
+    ) {
+        return idempotencyService.execute(
+            scopedKey(userId, "confirm", idempotencyKey),
+            id.toString(),
+            Booking.class,
+            () -> bookingService.confirm(id)
+        );
     }
 
     @PostMapping("/{id}/cancel")
     @PreAuthorize("hasRole('ADMIN') or @belongCheck.isOwner(#id, principal)")
-    public Booking cancel(@PathVariable Long id) {
-        return bookingService.cancel(id);
+    public Booking cancel(
+        @PathVariable Long id,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @AuthenticationPrincipal Long userId
+    ) {
+        return idempotencyService.execute(
+            scopedKey(userId, "cancel", idempotencyKey),
+            id.toString(),
+            Booking.class,
+            () -> bookingService.cancel(id)
+        );
+    }
+
+    // A retry gets its stored response even once the event sold out, everything else is admitted first
+    private Booking admitted(String key, BookingDTO bookingDTO, String admissionTicket, Supplier<Booking> work) {
+        return idempotencyService.completed(key, bookingDTO.toString(), Booking.class).orElseGet(() -> {
+            admissionService.admit(bookingDTO.eventId(), admissionTicket);
+            return idempotencyService.execute(key, bookingDTO.toString(), Booking.class, work);
+        });
+    }
+
+    // Keys are per user and operation, a client can only ever replay its own responses
+    private static String scopedKey(Long userId, String operation, String idempotencyKey) {
+        return idempotencyKey == null ? null : userId + ":" + operation + ":" + idempotencyKey;
     }
 
 }
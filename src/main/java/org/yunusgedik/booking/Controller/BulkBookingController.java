@@ -0,0 +1,48 @@
+package org.yunusgedik.booking.Controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.yunusgedik.booking.Model.Bulk.BulkAction;
+import org.yunusgedik.booking.Model.Bulk.BulkBookingJob;
+import org.yunusgedik.booking.Service.BulkBookingService;
+
+@RestController
+@RequestMapping("/booking")
+@Profile("!reactive")
+public class BulkBookingController {
+
+    BulkBookingService bulkBookingService;
+
+    BulkBookingController(BulkBookingService bulkBookingService) {
+        this.bulkBookingService = bulkBookingService;
+    }
+
+    @PostMapping("/event/{eventId}/cancel-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkBookingJob cancelAll(@PathVariable Long eventId) {
+        return bulkBookingService.start(eventId, BulkAction.CANCEL);
+    }
+
+    @PostMapping("/event/{eventId}/confirm-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkBookingJob confirmAll(@PathVariable Long eventId) {
+        return bulkBookingService.start(eventId, BulkAction.CONFIRM);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkBookingJob getJob(@PathVariable Long id) {
+        return bulkBookingService.get(id);
+    }
+
+    @PostMapping("/jobs/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkBookingJob resume(@PathVariable Long id) {
+        return bulkBookingService.resume(id);
+    }
+}
@@ -0,0 +1,151 @@
+package org.yunusgedik.booking.Controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingBatchResult;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingPage;
+import org.yunusgedik.booking.Service.IdempotencyService;
+import org.yunusgedik.booking.Service.ReactiveBookingService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * {@link BookingController} on WebFlux, for the reactive profile. The ownership check loads the booking
+ * once and hands it to the service, instead of going through @belongCheck. Reads check it against the cached
+ * booking, writes against the row they start from.
+ */
+@RestController
+@RequestMapping("/booking")
+@Profile("reactive")
+public class ReactiveBookingController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    ReactiveBookingService bookingService;
+    IdempotencyService idempotencyService;
+
+    ReactiveBookingController(ReactiveBookingService bookingService, IdempotencyService idempotencyService) {
+        this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+    }
+
+    @GetMapping()
+    public Mono<Booking> getByParam(@RequestParam(name = "id") Long id, Authentication authentication) {
+        return owned(bookingService.find(id), authentication);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Booking> get(@PathVariable Long id, Authentication authentication) {
+        return owned(bookingService.find(id), authentication);
+    }
+
+    @GetMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<BookingPage> getAll(
+        @ModelAttribute BookingFilter filter,
+        @RequestParam(name = "afterId", required = false) Long afterId,
+        @RequestParam(name = "size", defaultValue = "100") int size
+    ) {
+        return bookingService.getAll(filter, afterId, size);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<Booking> export(@ModelAttribute BookingFilter filter) {
+        return bookingService.export(filter);
+    }
+
+    @PostMapping("/new")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public Mono<Booking> create(
+        @RequestBody BookingDTO bookingDTO,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        Authentication authentication
+    ) {
+        return idempotent(
+            scopedKey(authentication, "create", idempotencyKey),
+            bookingDTO.toString(),
+            bookingService.create(bookingDTO)
+        );
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<List<BookingBatchResult>> createBatch(@RequestBody List<BookingDTO> bookingDTOs) {
+        return bookingService.createBatch(bookingDTOs);
+    }
+
+    @PatchMapping("/update/{id}")
+    public Mono<Booking> update(@RequestBody BookingDTO bookingDTO, @PathVariable Long id, Authentication authentication) {
+        return owned(bookingService.load(id), authentication)
+            .flatMap(booking -> bookingService.update(booking, bookingDTO));
+    }
+
+    @DeleteMapping()
+    public Mono<Booking> delete(@RequestParam(name = "id") Long id, Authentication authentication) {
+        return owned(bookingService.load(id), authentication).flatMap(bookingService::delete);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public Mono<Booking> confirm(
+        @PathVariable Long id,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        Authentication authentication
+    ) {
+        return owned(bookingService.load(id), authentication).flatMap(booking -> idempotent(
+            scopedKey(authentication, "confirm", idempotencyKey),
+            id.toString(),
+            bookingService.confirm(booking)
+        ));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public Mono<Booking> cancel(
+        @PathVariable Long id,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        Authentication authentication
+    ) {
+        return owned(bookingService.load(id), authentication).flatMap(booking -> idempotent(
+            scopedKey(authentication, "cancel", idempotencyKey),
+            id.toString(),
+            bookingService.cancel(booking)
+        ));
+    }
+
+    // IdempotencyService blocks, so keyed requests run on boundedElastic like the profile's other JDBC work
+    private Mono<Booking> idempotent(String key, String request, Mono<Booking> work) {
+        if (key == null) {
+            return work;
+        }
+        return Mono.fromCallable(() -> idempotencyService.execute(key, request, Booking.class, work::block))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Same scoping as BookingController, a client can only ever replay its own responses
+    private static String scopedKey(Authentication authentication, String operation, String idempotencyKey) {
+        return idempotencyKey == null ? null : authentication.getPrincipal() + ":" + operation + ":" + idempotencyKey;
+    }
+
+    // hasRole('ADMIN') or @belongCheck.isOwner(#id, principal), then 404 for an admin asking for a missing booking
+    private Mono<Booking> owned(Mono<Booking> source, Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+            .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+        return source
+            .filter(booking -> admin || booking.getUserId().equals(authentication.getPrincipal()))
+            .switchIfEmpty(Mono.error(() -> admin
+                ? new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")
+                : new AccessDeniedException("Access Denied")));
+    }
+}
@@ -0,0 +1,40 @@
+package org.yunusgedik.booking.Helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+
+import java.io.IOException;
+
+/**
+ * Reads booking events written by {@link BookingEventSerializer} with any schema version in
+ * {@link BookingEventSchemas}. JSON records from before the switch to Avro are still read until they have
+ * left the topic.
+ */
+public class BookingEventDeserializer implements Deserializer<BookingEvent> {
+
+    private final BinaryMessageDecoder<GenericRecord> decoder = BookingEventSchemas.decoder();
+    private final ObjectMapper objectMapper;
+
+    public BookingEventDeserializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookingEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (data.length > 0 && data[0] == '{') {
+                return objectMapper.readValue(data, BookingEvent.class);
+            }
+            return BookingEventSchemas.fromRecord(decoder.decode(data));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not deserialize booking event", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.yunusgedik.booking.Helper;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.SchemaStore;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * The Avro schemas of {@link BookingEvent}, embedded instead of fetched from a registry. Every record starts
+ * with the fingerprint of the schema it was written with, so a reader resolves it against any version listed
+ * here. A new version goes in as a new file at the end of {@link #VERSIONS}; older ones stay for as long as
+ * their records can still be on the topic.
+ * <p>
+ * Every version's status enum ends with UNKNOWN as its default, so a reader still on an older version reads
+ * a status added after it as UNKNOWN instead of failing the record. Later versions have to keep it.
+ */
+public final class BookingEventSchemas {
+
+    private static final List<String> VERSIONS = List.of(
+        "avro/booking-event-v1.avsc",
+        "avro/booking-event-v2.avsc"
+    );
+
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    static final Schema LATEST;
+
+    private static final SchemaStore.Cache STORE = new SchemaStore.Cache();
+
+    static {
+        Schema latest = null;
+        for (String version : VERSIONS) {
+            latest = load(version);
+            STORE.addSchema(latest);
+        }
+        LATEST = latest;
+    }
+
+    private BookingEventSchemas() {
+    }
+
+    static BinaryMessageEncoder<GenericRecord> encoder() {
+        return new BinaryMessageEncoder<>(GenericData.get(), LATEST);
+    }
+
+    static BinaryMessageDecoder<GenericRecord> decoder() {
+        return new BinaryMessageDecoder<>(GenericData.get(), LATEST, STORE);
+    }
+
+    static GenericRecord toRecord(BookingEvent event) {
+        GenericData.Record record = new GenericData.Record(LATEST);
+        record.put("bookingId", event.getBookingId());
+        record.put("userId", event.getUserId());
+        record.put("eventId", event.getEventId());
+        record.put("status", new GenericData.EnumSymbol(LATEST.getField("status").schema(), event.getStatus().name()));
+        record.put("price", event.getPrice());
+        record.put("timestamp", toMicros(event.getTimestamp()));
+        return record;
+    }
+
+    static BookingEvent fromRecord(GenericRecord record) {
+        String status = record.get("status").toString();
+        return new BookingEvent(
+            (Long) record.get("bookingId"),
+            (Long) record.get("userId"),
+            (Long) record.get("eventId"),
+            // A status newer than this reader, consumers act on the statuses they know
+            UNKNOWN_STATUS.equals(status) ? null : BookingStatus.valueOf(status),
+            (Double) record.get("price"),
+            fromMicros((Long) record.get("timestamp"))
+        );
+    }
+
+    // local-timestamp-micros: wall clock time without a zone, counted from 1970-01-01T00:00
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+            Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1_000,
+            ZoneOffset.UTC
+        );
+    }
+
+    private static Schema load(String resource) {
+        try (InputStream in = BookingEventSchemas.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing schema " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.yunusgedik.booking.Helper;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes a {@link BookingEvent} with the latest schema in {@link BookingEventSchemas}, as an Avro single-object
+ * encoded record: two marker bytes, the 8 byte schema fingerprint, then the fields without names.
+ */
+public class BookingEventSerializer implements Serializer<BookingEvent> {
+
+    private final BinaryMessageEncoder<GenericRecord> encoder = BookingEventSchemas.encoder();
+
+    @Override
+    public byte[] serialize(String topic, BookingEvent event) {
+        if (event == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        try {
+            encoder.encode(BookingEventSchemas.toRecord(event), out);
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize booking event " + event.getBookingId(), e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,42 @@
+package org.yunusgedik.booking.Helper;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+
+/**
+ * Booking mappings, generated at compile time into plain getter and setter calls. A field added to one
+ * side without a mapping fails the build instead of being silently dropped.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface BookingMapper {
+
+    // The id is assigned by the sequence and never taken from a request
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "holdExpiresAt", ignore = true)
+    Booking toBooking(BookingDTO bookingDTO);
+
+    /**
+     * Copies the fields that are set in the request onto the booking, null means unchanged. The event and
+     * status hold a seat, so they only change through confirm and cancel where the seat is accounted for.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "eventId", ignore = true)
+    @Mapping(target = "status", ignore = true)
+    @Mapping(target = "holdExpiresAt", ignore = true)
+    void update(BookingDTO bookingDTO, @MappingTarget Booking booking);
+
+    @Mapping(target = "bookingId", source = "booking.id")
+    @Mapping(target = "timestamp", expression = "java(java.time.LocalDateTime.now())")
+    BookingEvent toBookingEvent(Booking booking, Double price);
+}
@@ -0,0 +1,61 @@
+package org.yunusgedik.booking.Helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+
+@Configuration
+public class KafkaConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookingEvent> bookingEventListenerFactory(
+        KafkaProperties kafkaProperties,
+        ObjectMapper objectMapper,
+        @Value("${booking-events.consumer.max-retries}") int maxRetries
+    ) {
+        DefaultKafkaConsumerFactory<String, BookingEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(
+            kafkaProperties.buildConsumerProperties(null),
+            new StringDeserializer(),
+            // A record that cannot be read is logged and skipped instead of blocking its partition forever
+            new ErrorHandlingDeserializer<>(new BookingEventDeserializer(objectMapper))
+        );
+
+        ExponentialBackOff backOff = new ExponentialBackOff(200, 2.0);
+        backOff.setMaxAttempts(maxRetries);
+
+        ConcurrentKafkaListenerContainerFactory<String, BookingEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        factory.getContainerProperties().setObservationEnabled(true);
+        factory.setContainerCustomizer(KafkaConfig::noCommitsWithoutGroup);
+        return factory;
+    }
+
+    // Picked up by the default listener factory
+    @Bean
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>>
+        manualAssignmentCustomizer() {
+        return KafkaConfig::noCommitsWithoutGroup;
+    }
+
+    // A listener that assigns its own partitions has no consumer group to commit offsets to
+    private static void noCommitsWithoutGroup(AbstractMessageListenerContainer<?, ?> container) {
+        if (container.getContainerProperties().getTopicPartitions() != null) {
+            container.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        }
+    }
+}
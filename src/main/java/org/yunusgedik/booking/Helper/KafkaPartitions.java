@@ -0,0 +1,35 @@
+package org.yunusgedik.booking.Helper;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Partitions of a topic for listeners that assign themselves all of them instead of joining a consumer group,
+ * so an instance that goes away leaves nothing behind on the broker.
+ */
+@Component("kafkaPartitions")
+public class KafkaPartitions {
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    public KafkaPartitions(ConsumerFactory<?, ?> consumerFactory) {
+        this.consumerFactory = consumerFactory;
+    }
+
+    public String[] of(String topic) {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+            // A topic that does not exist yet gets its first partition, the one it is created with
+            if (partitions == null || partitions.isEmpty()) {
+                return new String[] {"0"};
+            }
+            return partitions.stream()
+                .map(partition -> String.valueOf(partition.partition()))
+                .toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.yunusgedik.booking.Helper;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, only set up when replica urls are configured. Transactions marked read-only get their
+ * connection from {@link ReplicaRoutingDataSource}, everything else, Flyway included, from the primary.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // The replicas share the primary's credentials
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+        DataSourceProperties dataSourceProperties,
+        MeterRegistry meterRegistry,
+        @Value("${datasource.replicas.urls}") List<String> urls,
+        @Value("${datasource.replicas.pool-size}") int poolSize,
+        @Value("${datasource.replicas.max-lag}") Duration maxLag
+    ) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(urls.get(i).trim())
+                .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaLagMonitor(replicas, maxLag, meterRegistry);
+    }
+
+    @Bean
+    public DataSource replicaDataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        ReplicaLagMonitor replicaLagMonitor
+    ) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor);
+    }
+
+    // The connection is taken at the first statement, when the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource routingDataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource
+    ) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,75 @@
+package org.yunusgedik.booking.Helper;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how far every replica is behind the primary. One that falls more than max-lag behind, or cannot
+ * be reached, is left out of the reads until it has caught up, so a read-only transaction never sees data
+ * older than max-lag plus one check interval.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    // Zero when everything received is replayed, unknown when the replica is not streaming from the primary
+    private static final String LAG_QUERY = """
+        select case
+            when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then null
+            when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+            else extract(epoch from now() - pg_last_xact_replay_timestamp()) end
+        """;
+
+    @Getter
+    private final Map<String, HikariDataSource> replicas;
+    private final Duration maxLag;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    // Empty until the first check, reads stay on the primary while the replicas are unknown
+    private volatile List<String> inSync = List.of();
+
+    public ReplicaLagMonitor(Map<String, HikariDataSource> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        replicas.keySet().forEach(name -> Gauge
+            .builder("datasource.replica.lag", lagSeconds, lags -> lags.getOrDefault(name, Double.NaN))
+            .tag("replica", name)
+            .baseUnit("seconds")
+            .register(meterRegistry));
+    }
+
+    public List<String> inSync() {
+        return inSync;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval-ms}")
+    public void check() {
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> {
+            Double lag;
+            try {
+                lag = new JdbcTemplate(dataSource).queryForObject(LAG_QUERY, Double.class);
+            } catch (DataAccessException e) {
+                lag = null;
+            }
+            lagSeconds.put(name, lag == null ? Double.NaN : lag);
+            if (lag != null && lag * 1000 <= maxLag.toMillis()) {
+                healthy.add(name);
+            }
+        });
+        inSync = List.copyOf(healthy);
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
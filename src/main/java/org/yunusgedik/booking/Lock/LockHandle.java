@@ -0,0 +1,13 @@
+package org.yunusgedik.booking.Lock;
+
+public interface LockHandle extends AutoCloseable {
+    long fencingToken();
+
+    /**
+     * Whether this handle still owns the lock, to be checked right before a write it protects.
+     */
+    boolean isValid();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,9 @@
+package org.yunusgedik.booking.Lock;
+
+public interface LockManager {
+    /**
+     * Waits up to the configured time for the named lock, throws {@link IllegalStateException} when it
+     * cannot be acquired in time or too many callers are already waiting for it.
+     */
+    LockHandle acquire(String name);
+}
@@ -0,0 +1,39 @@
+package org.yunusgedik.booking.Lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+class LockMetrics {
+    private final Timer acquired;
+    private final Timer failed;
+    private final Counter contended;
+    private final Counter rejected;
+
+    LockMetrics(MeterRegistry meterRegistry, String mode) {
+        this.acquired = Timer.builder("booking.lock.wait").tag("mode", mode).tag("outcome", "acquired")
+            .register(meterRegistry);
+        this.failed = Timer.builder("booking.lock.wait").tag("mode", mode).tag("outcome", "timeout")
+            .register(meterRegistry);
+        this.contended = Counter.builder("booking.lock.contention").tag("mode", mode).register(meterRegistry);
+        this.rejected = Counter.builder("booking.lock.rejected").tag("mode", mode).register(meterRegistry);
+    }
+
+    void acquired(long startNanos) {
+        acquired.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void failed(long startNanos) {
+        failed.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void contended() {
+        contended.increment();
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+}
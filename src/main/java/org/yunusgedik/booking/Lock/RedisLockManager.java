@@ -0,0 +1,136 @@
+package org.yunusgedik.booking.Lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lock shared by every instance. Acquire and release are one script call each, the fencing token comes
+ * back from the acquire itself.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.lock.mode", havingValue = "redis", matchIfMissing = true)
+public class RedisLockManager implements LockManager {
+
+    // Returns the new fencing token, or 0 while someone else holds the lock
+    private static final DefaultRedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+            return 0
+        end
+        local token = redis.call('INCR', KEYS[2])
+        redis.call('SET', KEYS[1], token, 'PX', ARGV[1])
+        return token
+        """, Long.class);
+
+    // Only the owner may delete, a lock that expired and was taken by someone else is left alone
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final StringRedisTemplate redisTemplate;
+    private final LockMetrics metrics;
+    private final WaitQueue waitQueue;
+    private final Duration lease;
+    private final Duration maxWait;
+
+    public RedisLockManager(
+        StringRedisTemplate redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${redis.timeout}") int leaseSeconds,
+        @Value("${booking.lock.max-wait}") Duration maxWait,
+        @Value("${booking.lock.max-waiters}") int maxWaiters
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.metrics = new LockMetrics(meterRegistry, "redis");
+        this.waitQueue = new WaitQueue(maxWaiters);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public LockHandle acquire(String name) {
+        if (!waitQueue.enter(name)) {
+            metrics.rejected();
+            throw new IllegalStateException("Could not acquire lock");
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        try {
+            long backoff = 1;
+            while (true) {
+                Long token = redisTemplate.execute(
+                    ACQUIRE_SCRIPT,
+                    List.of(lockKey(name), counterKey(name)),
+                    String.valueOf(lease.toMillis())
+                );
+                if (token != null && token > 0) {
+                    metrics.acquired(start);
+                    return new RedisLockHandle(name, token);
+                }
+                metrics.contended();
+                if (System.nanoTime() + backoff * 1_000_000 > deadline) {
+                    metrics.failed(start);
+                    throw new IllegalStateException("Could not acquire lock");
+                }
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        } finally {
+            waitQueue.leave(name);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Could not acquire lock", e);
+        }
+    }
+
+    private static String lockKey(String name) {
+        return "lock:{" + name + "}";
+    }
+
+    private static String counterKey(String name) {
+        return "lock:counter:{" + name + "}";
+    }
+
+    private class RedisLockHandle implements LockHandle {
+        private final String name;
+        private final long token;
+
+        RedisLockHandle(String name, long token) {
+            this.name = name;
+            this.token = token;
+        }
+
+        @Override
+        public long fencingToken() {
+            return token;
+        }
+
+        @Override
+        public boolean isValid() {
+            return String.valueOf(token).equals(redisTemplate.opsForValue().get(lockKey(name)));
+        }
+
+        @Override
+        public void close() {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(name)), String.valueOf(token));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.yunusgedik.booking.Lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps how many callers of this JVM may wait for the same lock, so a hot key sheds load instead of
+ * piling up threads that would all time out anyway.
+ */
+class WaitQueue {
+    private final ConcurrentHashMap<String, Integer> waiters = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+
+    WaitQueue(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    boolean enter(String name) {
+        boolean[] admitted = {false};
+        waiters.compute(name, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxWaiters) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    void leave(String name) {
+        waiters.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+    }
+}
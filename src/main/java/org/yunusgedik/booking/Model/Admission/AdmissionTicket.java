@@ -0,0 +1,7 @@
+package org.yunusgedik.booking.Model.Admission;
+
+/**
+ * A place in an event's waiting room. The client sends {@code ticket} back in the Admission-Ticket header
+ * until it is admitted.
+ */
+public record AdmissionTicket(Long eventId, String ticket, long position, long etaSeconds) {}
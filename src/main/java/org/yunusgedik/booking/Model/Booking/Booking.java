@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -15,13 +16,17 @@ import java.time.LocalDateTime;
 @Table(name = "booking")
 public class Booking {
 
+    // Pooled sequence so batch inserts get their ids without a round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     private Long userId; // comes from Auth/User service
 
-    private Long eventId; // refers to Event service
+    // Refers to the Event service. The table is partitioned by it, Hibernate adds it to every update and delete
+    @PartitionKey
+    private Long eventId;
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
@@ -29,4 +34,7 @@ public class Booking {
     private LocalDateTime bookingTime;
 
     private Instant createdAt;
+
+    // Set while the booking is HELD, the seat goes back once this passes
+    private Instant holdExpiresAt;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.yunusgedik.booking.Model.Booking;
+
+public record BookingBatchResult(
+    int index,
+    Booking booking,
+    String error
+) {
+    public static BookingBatchResult success(int index, Booking booking) {
+        return new BookingBatchResult(index, booking, null);
+    }
+
+    public static BookingBatchResult failure(int index, String error) {
+        return new BookingBatchResult(index, null, error);
+    }
+}
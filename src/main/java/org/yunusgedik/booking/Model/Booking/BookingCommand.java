@@ -0,0 +1,6 @@
+package org.yunusgedik.booking.Model.Booking;
+
+/**
+ * A create waiting for its event's writer, {@code hold} makes it a HELD booking like the hold endpoint.
+ */
+public record BookingCommand(BookingDTO booking, boolean hold) {}
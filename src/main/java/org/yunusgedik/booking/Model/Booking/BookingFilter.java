@@ -0,0 +1,13 @@
+package org.yunusgedik.booking.Model.Booking;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record BookingFilter(
+    Long eventId,
+    Long userId,
+    BookingStatus status,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+) {}
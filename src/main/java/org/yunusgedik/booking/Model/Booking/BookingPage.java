@@ -0,0 +1,8 @@
+package org.yunusgedik.booking.Model.Booking;
+
+import java.util.List;
+
+public record BookingPage(
+    List<Booking> items,
+    Long nextAfterId
+) {}
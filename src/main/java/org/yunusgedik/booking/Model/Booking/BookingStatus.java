@@ -3,5 +3,14 @@ package org.yunusgedik.booking.Model.Booking;
 public enum BookingStatus {
     CONFIRMED,
     CANCELLED,
-    WAITLISTED
+    WAITLISTED,
+    HELD,
+    EXPIRED;
+
+    /**
+     * Whether a booking in this status takes one of the event's seats, in Redis and in event_inventory.
+     */
+    public boolean holdsSeat() {
+        return this == CONFIRMED || this == HELD;
+    }
 }
@@ -0,0 +1,6 @@
+package org.yunusgedik.booking.Model.Booking;
+
+/**
+ * A booking as written by a set-based status update, with the status it had before.
+ */
+public record BookingStatusChange(Booking booking, BookingStatus previous) {}
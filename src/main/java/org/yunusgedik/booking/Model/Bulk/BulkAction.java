@@ -0,0 +1,6 @@
+package org.yunusgedik.booking.Model.Bulk;
+
+public enum BulkAction {
+    CANCEL,
+    CONFIRM
+}
@@ -0,0 +1,53 @@
+package org.yunusgedik.booking.Model.Bulk;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "booking_bulk_job")
+public class BulkBookingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_bulk_job_seq")
+    @SequenceGenerator(name = "booking_bulk_job_seq", sequenceName = "booking_bulk_job_seq", allocationSize = 1)
+    private Long id;
+
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    private BulkAction action;
+
+    @Enumerated(EnumType.STRING)
+    private BulkJobStatus status;
+
+    // Bookings are processed in id order, everything up to this id is done
+    private long lastBookingId;
+
+    private int processed;
+
+    // Bookings the job could touch when it started, for progress only
+    private int total;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    public BulkBookingJob(Long eventId, BulkAction action, int total) {
+        this.eventId = eventId;
+        this.action = action;
+        this.status = BulkJobStatus.RUNNING;
+        this.total = total;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+}
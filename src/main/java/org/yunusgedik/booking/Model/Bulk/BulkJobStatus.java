@@ -0,0 +1,7 @@
+package org.yunusgedik.booking.Model.Bulk;
+
+public enum BulkJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
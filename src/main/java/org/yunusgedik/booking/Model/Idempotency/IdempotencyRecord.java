@@ -0,0 +1,30 @@
+package org.yunusgedik.booking.Model.Idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+    @Id
+    private String requestKey;
+
+    private String fingerprint;
+
+    // Null while the first request is still running
+    @Column(columnDefinition = "text")
+    private String response;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,7 @@
+package org.yunusgedik.booking.Model.Inventory;
+
+/**
+ * Seat situation of an event as shown to clients. {@code confirmed} includes held seats, {@code remaining}
+ * is what can still be reserved right now.
+ */
+public record Availability(Long eventId, int capacity, int confirmed, int waitlisted, int remaining) {}
@@ -0,0 +1,30 @@
+package org.yunusgedik.booking.Model.Inventory;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Taken seats and waitlisted bookings of an event, held seats count as taken. Only changed through the
+ * conditional updates of {@link org.yunusgedik.booking.Repository.EventInventoryRepository}, never saved as
+ * an entity.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "event_inventory")
+public class EventInventory {
+
+    @Id
+    private Long eventId;
+
+    private int capacity;
+
+    private int confirmed;
+
+    private int waitlisted;
+}
@@ -0,0 +1,38 @@
+package org.yunusgedik.booking.Model.Outbox;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "booking_outbox")
+public class OutboxEvent {
+
+    // Ids are the publishing order, taken one at a time under the booking's row lock to follow commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    private String topic;
+
+    private String messageKey;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private Instant createdAt;
+
+    public OutboxEvent(String topic, String messageKey, String payload) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+}
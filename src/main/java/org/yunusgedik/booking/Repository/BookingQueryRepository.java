@@ -0,0 +1,42 @@
+package org.yunusgedik.booking.Repository;
+
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Booking.BookingStatusChange;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingQueryRepository {
+    /**
+     * Keyset page ordered by id, starting after {@code afterId} when given.
+     */
+    List<Booking> findPage(BookingFilter filter, Long afterId, int limit);
+
+    /**
+     * Detached bookings read with the given JDBC fetch size, must be consumed inside a transaction.
+     */
+    Stream<Booking> streamAll(BookingFilter filter, int fetchSize);
+
+    /**
+     * Moves up to {@code limit} bookings of the event, the first ones after {@code afterId} in id order that
+     * are in one of the {@code from} statuses, to {@code to} with a single UPDATE. Returns the changed rows
+     * with their previous status, in id order.
+     */
+    List<BookingStatusChange> updateStatusChunk(
+        Long eventId,
+        Collection<BookingStatus> from,
+        BookingStatus to,
+        long afterId,
+        int limit
+    );
+
+    /**
+     * Moves the given bookings that are still HELD and past their hold to EXPIRED with a single UPDATE, and
+     * returns them. Bookings confirmed or cancelled in the meantime are left alone.
+     */
+    List<Booking> expireHolds(Collection<Long> ids, Instant now);
+}
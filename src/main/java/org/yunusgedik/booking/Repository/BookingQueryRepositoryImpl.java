@@ -0,0 +1,164 @@
+package org.yunusgedik.booking.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Booking.BookingStatusChange;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findPage(BookingFilter filter, Long afterId, int limit) {
+        return entityManager.createQuery(query(filter, afterId))
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public Stream<Booking> streamAll(BookingFilter filter, int fetchSize) {
+        return entityManager.createQuery(query(filter, null))
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()
+            // Keeps the persistence context from growing with the export
+            .peek(entityManager::detach);
+    }
+
+    @Override
+    public List<BookingStatusChange> updateStatusChunk(
+        Long eventId,
+        Collection<BookingStatus> from,
+        BookingStatus to,
+        long afterId,
+        int limit
+    ) {
+        // Rows are locked as they are picked, a concurrent single cancel or confirm waits for the chunk
+        Query query = entityManager.createNativeQuery("""
+                with picked as (
+                    select id, status from booking
+                    where event_id = :eventId and id > :afterId and status in (:from)
+                    order by id
+                    limit :limit
+                    for update
+                ), changed as (
+                    update booking b set status = :to
+                    from picked
+                    where b.id = picked.id and b.event_id = :eventId
+                    returning b.id, b.user_id, b.event_id, b.booking_time, b.created_at, b.hold_expires_at,
+                        picked.status as previous
+                )
+                select * from changed order by id
+                """)
+            .setParameter("eventId", eventId)
+            .setParameter("afterId", afterId)
+            .setParameter("from", from.stream().map(BookingStatus::name).toList())
+            .setParameter("to", to.name())
+            .setParameter("limit", limit);
+        List<?> rows = withBookingColumns(query).addScalar("previous", String.class).getResultList();
+
+        List<BookingStatusChange> changes = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            changes.add(new BookingStatusChange(toBooking(columns, to), BookingStatus.valueOf((String) columns[6])));
+        }
+        return changes;
+    }
+
+    @Override
+    public List<Booking> expireHolds(Collection<Long> ids, Instant now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Query query = entityManager.createNativeQuery("""
+                with changed as (
+                    update booking set status = 'EXPIRED'
+                    where id in (:ids) and status = 'HELD' and hold_expires_at <= :now
+                    returning id, user_id, event_id, booking_time, created_at, hold_expires_at
+                )
+                select * from changed order by id
+                """)
+            .setParameter("ids", ids)
+            .setParameter("now", now);
+        List<?> rows = withBookingColumns(query).getResultList();
+
+        List<Booking> expired = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            expired.add(toBooking((Object[]) row, BookingStatus.EXPIRED));
+        }
+        return expired;
+    }
+
+    // Returned booking columns in a fixed order, typed so the rows map without guessing
+    @SuppressWarnings("unchecked")
+    private static NativeQuery<Object[]> withBookingColumns(Query query) {
+        return query.unwrap(NativeQuery.class)
+            .addScalar("id", Long.class)
+            .addScalar("user_id", Long.class)
+            .addScalar("event_id", Long.class)
+            .addScalar("booking_time", LocalDateTime.class)
+            .addScalar("created_at", Instant.class)
+            .addScalar("hold_expires_at", Instant.class);
+    }
+
+    private static Booking toBooking(Object[] columns, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId((Long) columns[0]);
+        booking.setUserId((Long) columns[1]);
+        booking.setEventId((Long) columns[2]);
+        booking.setStatus(status);
+        booking.setBookingTime((LocalDateTime) columns[3]);
+        booking.setCreatedAt((Instant) columns[4]);
+        booking.setHoldExpiresAt((Instant) columns[5]);
+        return booking;
+    }
+
+    // Only the predicates that are set end up in the SQL, so the planner can pick the matching composite index
+    private CriteriaQuery<Booking> query(BookingFilter filter, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(booking.get("id"), afterId));
+        }
+        if (filter.eventId() != null) {
+            predicates.add(cb.equal(booking.get("eventId"), filter.eventId()));
+        }
+        if (filter.userId() != null) {
+            predicates.add(cb.equal(booking.get("userId"), filter.userId()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(booking.get("status"), filter.status()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(booking.get("bookingTime"), filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(booking.get("bookingTime"), filter.to()));
+        }
+
+        return query.select(booking)
+            .where(predicates.toArray(Predicate[]::new))
+            .orderBy(cb.asc(booking.get("id")));
+    }
+}
@@ -1,10 +1,56 @@
 package org.yunusgedik.booking.Repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.yunusgedik.booking.Model.Booking.Booking;
 import org.yunusgedik.booking.Model.Booking.BookingStatus;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
     int countByEventIdAndStatus(Long eventId, BookingStatus status);
-    Booking findFirstByEventIdAndStatusOrderByBookingTimeAsc(Long eventId, BookingStatus status);
+    int countByEventIdAndStatusIn(Long eventId, Collection<BookingStatus> statuses);
+    List<Booking> findByEventIdAndStatusOrderByBookingTimeAsc(Long eventId, BookingStatus status, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id = :id")
+    Optional<Booking> findForUpdate(@Param("id") Long id);
+
+    // Changes the status only if nobody else did in the meantime, a hold can expire under a running request
+    @Modifying
+    @Query("update Booking b set b.status = :to where b.id = :id and b.eventId = :eventId and b.status = :from")
+    int transition(
+        @Param("id") Long id,
+        @Param("eventId") Long eventId,
+        @Param("from") BookingStatus from,
+        @Param("to") BookingStatus to
+    );
+
+    // Deletes only a booking nobody changed since it was read, so only one caller gives its seat back
+    @Modifying
+    @Query("delete from Booking b where b.id = :id and b.eventId = :eventId and b.status = :status")
+    int deleteIfStatus(@Param("id") Long id, @Param("eventId") Long eventId, @Param("status") BookingStatus status);
+
+    @Modifying
+    @Query("""
+        update Booking b set b.status = org.yunusgedik.booking.Model.Booking.BookingStatus.CONFIRMED
+        where b.id = :id
+            and b.eventId = :eventId
+            and b.status = org.yunusgedik.booking.Model.Booking.BookingStatus.HELD
+            and b.holdExpiresAt > :now
+        """)
+    int confirmHold(@Param("id") Long id, @Param("eventId") Long eventId, @Param("now") Instant now);
+
+    @Query(value = """
+        select id from booking where status = 'HELD' and hold_expires_at <= :before order by hold_expires_at limit :limit
+        """, nativeQuery = true)
+    List<Long> findExpiredHoldIds(@Param("before") Instant before, @Param("limit") int limit);
 }
@@ -0,0 +1,23 @@
+package org.yunusgedik.booking.Repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.yunusgedik.booking.Model.Bulk.BulkBookingJob;
+import org.yunusgedik.booking.Model.Bulk.BulkJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface BulkBookingJobRepository extends JpaRepository<BulkBookingJob, Long> {
+    Optional<BulkBookingJob> findByEventIdAndStatus(Long eventId, BulkJobStatus status);
+
+    List<BulkBookingJob> findByStatusAndUpdatedAtBefore(BulkJobStatus status, Instant updatedBefore);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from BulkBookingJob j where j.id = :id")
+    Optional<BulkBookingJob> findForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,51 @@
+package org.yunusgedik.booking.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.yunusgedik.booking.Model.Inventory.EventInventory;
+
+import java.util.Optional;
+
+public interface EventInventoryRepository extends JpaRepository<EventInventory, Long> {
+
+    // Takes the seats only if they fit, returns 0 otherwise or when the event has no row yet
+    @Modifying
+    @Query(value = """
+        update event_inventory set confirmed = confirmed + :seats, capacity = :capacity
+        where event_id = :eventId and confirmed + :seats <= :capacity
+        """, nativeQuery = true)
+    int tryConfirm(@Param("eventId") Long eventId, @Param("capacity") int capacity, @Param("seats") int seats);
+
+    @Modifying
+    @Query(value = """
+        update event_inventory set confirmed = greatest(confirmed - :seats, 0) where event_id = :eventId
+        """, nativeQuery = true)
+    int release(@Param("eventId") Long eventId, @Param("seats") int seats);
+
+    // A no-op until the event's row exists, it is seeded with the count of waitlisted bookings at that point
+    @Modifying
+    @Query(value = """
+        update event_inventory set waitlisted = greatest(waitlisted + :delta, 0) where event_id = :eventId
+        """, nativeQuery = true)
+    int adjustWaitlisted(@Param("eventId") Long eventId, @Param("delta") int delta);
+
+    // Concurrent seeders of one event wait on each other through the primary key, the first one wins
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into event_inventory (event_id, capacity, confirmed, waitlisted)
+        select :eventId, :capacity,
+            count(*) filter (where status in ('CONFIRMED', 'HELD')),
+            count(*) filter (where status = 'WAITLISTED')
+        from booking
+        where event_id = :eventId
+        on conflict (event_id) do nothing
+        """, nativeQuery = true)
+    int seed(@Param("eventId") Long eventId, @Param("capacity") int capacity);
+
+    @Query(value = "select confirmed from event_inventory where event_id = :eventId", nativeQuery = true)
+    Optional<Integer> findConfirmed(@Param("eventId") Long eventId);
+}
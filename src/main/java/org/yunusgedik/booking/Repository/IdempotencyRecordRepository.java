@@ -0,0 +1,51 @@
+package org.yunusgedik.booking.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.yunusgedik.booking.Model.Idempotency.IdempotencyRecord;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Query("select r from IdempotencyRecord r where r.requestKey = :key and r.expiresAt > :now")
+    Optional<IdempotencyRecord> findLive(@Param("key") String key, @Param("now") Instant now);
+
+    // Also takes over a claim whose owner died without finishing or releasing it
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into idempotency_key (request_key, fingerprint, response, expires_at) values (:key, :fingerprint, null, :expiresAt)
+        on conflict (request_key) do update set fingerprint = excluded.fingerprint, expires_at = excluded.expires_at
+        where idempotency_key.response is null and idempotency_key.expires_at < now()
+        """, nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into idempotency_key (request_key, fingerprint, response, expires_at)
+        values (:key, :fingerprint, :response, :expiresAt)
+        on conflict (request_key) do update set response = excluded.response, expires_at = excluded.expires_at
+        """, nativeQuery = true)
+    void complete(
+        @Param("key") String key,
+        @Param("fingerprint") String fingerprint,
+        @Param("response") String response,
+        @Param("expiresAt") Instant expiresAt
+    );
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.requestKey = :key and r.response is null")
+    void release(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,18 @@
+package org.yunusgedik.booking.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.yunusgedik.booking.Model.Outbox.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query(value = "select * from booking_outbox order by id limit :limit", nativeQuery = true)
+    List<OutboxEvent> findBatch(@Param("limit") int limit);
+
+    OutboxEvent findFirstByOrderByIdAsc();
+
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryLock(@Param("key") long key);
+}
@@ -0,0 +1,257 @@
+package org.yunusgedik.booking.Repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The booking, outbox and event_inventory statements of the JPA repositories over R2DBC, for the reactive
+ * profile. Ids come straight from the sequences; a booking id takes a whole block of the pooled booking_seq, so
+ * it never overlaps with the blocks Hibernate hands out.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveBookingRepository {
+
+    private static final String COLUMNS = "id, user_id, event_id, status, booking_time, created_at, hold_expires_at";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookingRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Booking> findById(Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from booking where id = :id")
+            .bind("id", id)
+            .map(ReactiveBookingRepository::toBooking)
+            .one();
+    }
+
+    // Same as BookingRepository.findForUpdate
+    public Mono<Booking> findForUpdate(Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from booking where id = :id for update")
+            .bind("id", id)
+            .map(ReactiveBookingRepository::toBooking)
+            .one();
+    }
+
+    public Flux<Booking> findPage(BookingFilter filter, Long afterId, int limit) {
+        return query(filter, afterId, " limit " + limit);
+    }
+
+    public Flux<Booking> streamAll(BookingFilter filter) {
+        return query(filter, null, "");
+    }
+
+    public Mono<Booking> insert(Booking booking) {
+        GenericExecuteSpec spec = databaseClient.sql("""
+            insert into booking (id, user_id, event_id, status, booking_time, created_at)
+            values (nextval('booking_seq'), :userId, :eventId, :status, :bookingTime, :createdAt)
+            returning id
+            """);
+        return bindColumns(spec, booking)
+            .map(row -> row.get("id", Long.class))
+            .one()
+            .map(id -> {
+                booking.setId(id);
+                return booking;
+            });
+    }
+
+    public Mono<Booking> update(Booking booking) {
+        GenericExecuteSpec spec = databaseClient.sql("""
+            update booking set user_id = :userId, event_id = :eventId, status = :status,
+                booking_time = :bookingTime, created_at = :createdAt
+            where id = :id and event_id = :eventId
+            """).bind("id", booking.getId());
+        return bindColumns(spec, booking).then().thenReturn(booking);
+    }
+
+    // Same statements as BookingRepository.transition and confirmHold, the event id prunes to one partition
+    public Mono<Boolean> transition(Long id, Long eventId, BookingStatus from, BookingStatus to) {
+        return databaseClient.sql("""
+            update booking set status = :to where id = :id and event_id = :eventId and status = :from
+            """)
+            .bind("id", id)
+            .bind("eventId", eventId)
+            .bind("from", from.name())
+            .bind("to", to.name())
+            .fetch().rowsUpdated()
+            .map(updated -> updated == 1);
+    }
+
+    public Mono<Boolean> confirmHold(Long id, Long eventId) {
+        return databaseClient.sql("""
+            update booking set status = 'CONFIRMED'
+            where id = :id and event_id = :eventId and status = 'HELD' and hold_expires_at > :now
+            """)
+            .bind("id", id)
+            .bind("eventId", eventId)
+            .bind("now", Instant.now())
+            .fetch().rowsUpdated()
+            .map(updated -> updated == 1);
+    }
+
+    // Same as BookingRepository.deleteIfStatus
+    public Mono<Boolean> deleteIfStatus(Long id, Long eventId, BookingStatus status) {
+        return databaseClient.sql("delete from booking where id = :id and event_id = :eventId and status = :status")
+            .bind("id", id)
+            .bind("eventId", eventId)
+            .bind("status", status.name())
+            .fetch().rowsUpdated()
+            .map(deleted -> deleted == 1);
+    }
+
+    public Mono<Void> insertOutbox(String topic, String messageKey, String payload) {
+        return databaseClient.sql("""
+            insert into booking_outbox (id, topic, message_key, payload, created_at)
+            values (nextval('booking_outbox_seq'), :topic, :messageKey, :payload, :createdAt)
+            """)
+            .bind("topic", topic)
+            .bind("messageKey", messageKey)
+            .bind("payload", payload)
+            .bind("createdAt", Instant.now())
+            .then();
+    }
+
+    // Same statements as EventInventoryRepository
+    public Mono<Boolean> tryConfirm(Long eventId, int capacity, int seats) {
+        return databaseClient.sql("""
+            update event_inventory set confirmed = confirmed + :seats, capacity = :capacity
+            where event_id = :eventId and confirmed + :seats <= :capacity
+            """)
+            .bind("eventId", eventId)
+            .bind("capacity", capacity)
+            .bind("seats", seats)
+            .fetch().rowsUpdated()
+            .map(updated -> updated == 1);
+    }
+
+    public Mono<Void> seedInventory(Long eventId, int capacity) {
+        return databaseClient.sql("""
+            insert into event_inventory (event_id, capacity, confirmed, waitlisted)
+            select :eventId, :capacity,
+                count(*) filter (where status in ('CONFIRMED', 'HELD')),
+                count(*) filter (where status = 'WAITLISTED')
+            from booking
+            where event_id = :eventId
+            on conflict (event_id) do nothing
+            """)
+            .bind("eventId", eventId)
+            .bind("capacity", capacity)
+            .then();
+    }
+
+    public Mono<Void> releaseSeats(Long eventId, int seats) {
+        return databaseClient.sql("""
+            update event_inventory set confirmed = greatest(confirmed - :seats, 0) where event_id = :eventId
+            """)
+            .bind("eventId", eventId)
+            .bind("seats", seats)
+            .then();
+    }
+
+    public Mono<Void> adjustWaitlisted(Long eventId, int delta) {
+        if (delta == 0) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("""
+            update event_inventory set waitlisted = greatest(waitlisted + :delta, 0) where event_id = :eventId
+            """)
+            .bind("eventId", eventId)
+            .bind("delta", delta)
+            .then();
+    }
+
+    public Mono<Integer> confirmedSeats(Long eventId) {
+        return databaseClient.sql("select confirmed from event_inventory where event_id = :eventId")
+            .bind("eventId", eventId)
+            .map(row -> row.get("confirmed", Integer.class))
+            .one()
+            .switchIfEmpty(databaseClient.sql(
+                    "select count(*) as confirmed from booking where event_id = :eventId and status in ('CONFIRMED', 'HELD')")
+                .bind("eventId", eventId)
+                .map(row -> row.get("confirmed", Long.class).intValue())
+                .one());
+    }
+
+    // Only the predicates that are set end up in the SQL, as in BookingQueryRepositoryImpl
+    private Flux<Booking> query(BookingFilter filter, Long afterId, String suffix) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (afterId != null) {
+            predicates.add("id > :afterId");
+            parameters.put("afterId", afterId);
+        }
+        if (filter.eventId() != null) {
+            predicates.add("event_id = :eventId");
+            parameters.put("eventId", filter.eventId());
+        }
+        if (filter.userId() != null) {
+            predicates.add("user_id = :userId");
+            parameters.put("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            predicates.add("status = :status");
+            parameters.put("status", filter.status().name());
+        }
+        if (filter.from() != null) {
+            predicates.add("booking_time >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            predicates.add("booking_time < :to");
+            parameters.put("to", filter.to());
+        }
+
+        String where = predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+        GenericExecuteSpec spec = databaseClient.sql("select " + COLUMNS + " from booking" + where + " order by id" + suffix);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(ReactiveBookingRepository::toBooking).all();
+    }
+
+    private static GenericExecuteSpec bindColumns(GenericExecuteSpec spec, Booking booking) {
+        spec = bindNullable(spec, "userId", booking.getUserId(), Long.class);
+        spec = bindNullable(spec, "eventId", booking.getEventId(), Long.class);
+        spec = bindNullable(spec, "status", booking.getStatus() == null ? null : booking.getStatus().name(), String.class);
+        spec = bindNullable(spec, "bookingTime", booking.getBookingTime(), LocalDateTime.class);
+        return bindNullable(spec, "createdAt", booking.getCreatedAt(), Instant.class);
+    }
+
+    private static <T> GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Booking toBooking(Readable row) {
+        Booking booking = new Booking();
+        booking.setId(row.get("id", Long.class));
+        booking.setUserId(row.get("user_id", Long.class));
+        booking.setEventId(row.get("event_id", Long.class));
+        String status = row.get("status", String.class);
+        booking.setStatus(status == null ? null : BookingStatus.valueOf(status));
+        booking.setBookingTime(row.get("booking_time", LocalDateTime.class));
+        OffsetDateTime createdAt = row.get("created_at", OffsetDateTime.class);
+        booking.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+        OffsetDateTime holdExpiresAt = row.get("hold_expires_at", OffsetDateTime.class);
+        booking.setHoldExpiresAt(holdExpiresAt == null ? null : holdExpiresAt.toInstant());
+        return booking;
+    }
+}
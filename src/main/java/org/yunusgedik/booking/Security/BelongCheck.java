@@ -12,6 +12,10 @@ public class BelongCheck {
     }
 
     public boolean isOwner(Long bookingId, Long userId) {
-        return bookingService.get(bookingId).getUserId().equals(userId);
+        return bookingService.isOwner(bookingId, userId);
+    }
+
+    public boolean isViewer(Long bookingId, Long userId) {
+        return bookingService.isViewer(bookingId, userId);
     }
 }
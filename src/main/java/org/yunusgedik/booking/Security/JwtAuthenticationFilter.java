@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,12 +14,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Set;
 
 @Component
+@Profile("!reactive")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtValidationService jwtValidationService;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
     public JwtAuthenticationFilter(JwtValidationService jwtValidationService) {
         this.jwtValidationService = jwtValidationService;
@@ -40,20 +42,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring("Bearer ".length());
 
-        Long userId = jwtValidationService.extractUserId(token);
-        Set<String> roles = jwtValidationService.extractRoles(token);
+        JwtPrincipal principal = jwtValidationService.parse(token);
 
-        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (principal.userId() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(
-                    userId,
+                    principal.userId(),
                     null,
-                    roles.stream()
+                    principal.roles().stream()
                         .map(SimpleGrantedAuthority::new)
                         .toList()
                 );
 
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            authentication.setDetails(detailsSource.buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
@@ -0,0 +1,10 @@
+package org.yunusgedik.booking.Security;
+
+import java.time.Instant;
+import java.util.Set;
+
+public record JwtPrincipal(
+    Long userId,
+    Set<String> roles,
+    Instant expiresAt
+) {}
@@ -1,5 +1,6 @@
 package org.yunusgedik.booking.Security;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -12,6 +13,7 @@ import java.util.Base64;
 public class JwtPublicKeyProvider {
     private final PublicKey publicKey;
 
+    @Autowired
     public JwtPublicKeyProvider() throws Exception {
         String key = Files.readString(Paths.get("src/main/resources/keys/jwt_public.pem"))
             .replaceAll("-----\\w+ PUBLIC KEY-----", "")
@@ -23,6 +25,10 @@ public class JwtPublicKeyProvider {
         this.publicKey = kf.generatePublic(spec);
     }
 
+    public JwtPublicKeyProvider(PublicKey publicKey) {
+        this.publicKey = publicKey;
+    }
+
     public PublicKey getPublicKey() {
         return publicKey;
     }
@@ -1,9 +1,22 @@
 package org.yunusgedik.booking.Security;
 
-import io.jsonwebtoken.Jwts;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -11,34 +24,77 @@ import java.util.stream.Collectors;
 @Service
 public class JwtValidationService {
 
-    private final JwtPublicKeyProvider keyProvider;
+    private final JwtParser parser;
+    private final Cache<String, JwtPrincipal> verified;
+    private final Duration maxTtl;
 
-    public JwtValidationService(JwtPublicKeyProvider keyProvider) {
-        this.keyProvider = keyProvider;
+    public JwtValidationService(
+        JwtPublicKeyProvider keyProvider,
+        MeterRegistry meterRegistry,
+        @Value("${jwt.cache.max-size}") long maxSize,
+        @Value("${jwt.cache.max-ttl}") Duration maxTtl
+    ) {
+        this.parser = Jwts.parserBuilder()
+            .setSigningKey(keyProvider.getPublicKey())
+            .build();
+        this.maxTtl = maxTtl;
+        // Verified tokens are remembered until they expire, so a client reusing its token pays for RSA once
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((String hash, JwtPrincipal principal) -> timeToLive(principal)))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
+    }
+
+    public JwtPrincipal parse(String token) {
+        String hash = hash(token);
+        JwtPrincipal principal = verified.getIfPresent(hash);
+        if (principal == null || !principal.expiresAt().isAfter(Instant.now())) {
+            principal = verify(token);
+            verified.put(hash, principal);
+        }
+        return principal;
     }
 
     public Long extractUserId(String token) {
-        String subject = Jwts.parserBuilder()
-            .setSigningKey(keyProvider.getPublicKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getSubject();
-        return Long.parseLong(subject);
+        return parse(token).userId();
     }
 
     public Set<String> extractRoles(String token) {
-        Object rolesClaim = Jwts.parserBuilder()
-            .setSigningKey(keyProvider.getPublicKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .get("roles");
+        return parse(token).roles();
+    }
+
+    private JwtPrincipal verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
-        List<?> rolesList = (List<?>) rolesClaim;
-        return rolesList.stream()
+        List<?> rolesList = (List<?>) claims.get("roles");
+        Set<String> roles = rolesList.stream()
             .filter(obj -> obj instanceof String)
             .map(obj -> (String) obj)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toUnmodifiableSet());
+
+        Instant expiresAt = claims.getExpiration() != null
+            ? claims.getExpiration().toInstant()
+            : Instant.now().plus(maxTtl);
+        return new JwtPrincipal(Long.parseLong(claims.getSubject()), roles, expiresAt);
+    }
+
+    private Duration timeToLive(JwtPrincipal principal) {
+        Duration untilExpiry = Duration.between(Instant.now(), principal.expiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+    }
+
+    // Raw tokens are credentials, the cache only ever holds their digest
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
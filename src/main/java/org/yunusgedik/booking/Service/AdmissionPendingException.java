@@ -0,0 +1,23 @@
+package org.yunusgedik.booking.Service;
+
+import lombok.Getter;
+import org.yunusgedik.booking.Model.Admission.AdmissionTicket;
+
+import java.time.Duration;
+
+/**
+ * The request has to wait its turn, answered with 202, the ticket and a Retry-After.
+ */
+@Getter
+public class AdmissionPendingException extends RuntimeException {
+
+    private final AdmissionTicket ticket;
+    private final Duration retryAfter;
+
+    public AdmissionPendingException(AdmissionTicket ticket, Duration retryAfter) {
+        // Thrown for most requests during an on-sale, a stack trace would be pure overhead
+        super("Waiting for admission", null, false, false);
+        this.ticket = ticket;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,175 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Admission.AdmissionTicket;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Waiting room in front of the booking paths that take a seat. Each event has a token bucket that bounds how
+ * many requests per second reach the backend. Requests beyond it get a numbered ticket and are admitted in
+ * ticket order as the bucket refills, so retrying early never gets anyone ahead. Once the event's Redis
+ * inventory is at zero, requests are turned away before they cost anything.
+ */
+@Service
+public class AdmissionService {
+
+    // Returns {1, 0, 0} when admitted, {0, ticket, position} when queued and {-1, 0, 0} when sold out
+    private static final DefaultRedisScript<List> ADMIT_SCRIPT = new DefaultRedisScript<>("""
+        if tonumber(redis.call('GET', KEYS[1]) or '1') <= 0 then
+            return {-1, 0, 0}
+        end
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+        local rate = tonumber(ARGV[1])
+        local burst = tonumber(ARGV[2])
+        local ttl = tonumber(ARGV[6])
+
+        local bucket = redis.call('HMGET', KEYS[2], 'tokens', 'ts')
+        local tokens = tonumber(bucket[1]) or burst
+        local last = tonumber(bucket[2]) or now
+        tokens = math.min(burst, tokens + math.max(0, now - last) * rate / 1000)
+
+        local issued = tonumber(redis.call('GET', KEYS[3]) or '0')
+        local served = tonumber(redis.call('GET', KEYS[4]) or '0')
+        local moved = math.min(math.floor(tokens), issued - served)
+        served = served + moved
+        tokens = tokens - moved
+
+        local result
+        local ticket = tonumber(ARGV[3])
+        if ticket > 0 and redis.call('HGET', KEYS[5], ARGV[3]) == ARGV[4] then
+            if ticket <= served then
+                redis.call('HDEL', KEYS[5], ARGV[3])
+                result = {1, 0, 0}
+            else
+                result = {0, ticket, ticket - served}
+            end
+        elseif issued == served and tokens >= 1 then
+            tokens = tokens - 1
+            result = {1, 0, 0}
+        else
+            issued = issued + 1
+            redis.call('HSET', KEYS[5], issued, ARGV[5])
+            result = {0, issued, issued - served}
+        end
+
+        redis.call('HSET', KEYS[2], 'tokens', tostring(tokens), 'ts', now)
+        redis.call('SET', KEYS[3], issued, 'PX', ttl)
+        redis.call('SET', KEYS[4], served, 'PX', ttl)
+        redis.call('PEXPIRE', KEYS[2], ttl)
+        redis.call('PEXPIRE', KEYS[5], ttl)
+        return result
+        """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter shed;
+
+    @Value("${admission.enabled}")
+    private boolean enabled;
+
+    @Value("${admission.rate-per-second}")
+    private double ratePerSecond;
+
+    @Value("${admission.burst}")
+    private int burst;
+
+    @Value("${admission.ticket-ttl}")
+    private Duration ticketTtl;
+
+    @Value("${admission.max-retry-after}")
+    private Duration maxRetryAfter;
+
+    public AdmissionService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.admitted = Counter.builder("booking.admission").tag("result", "admitted").register(meterRegistry);
+        this.queued = Counter.builder("booking.admission").tag("result", "queued").register(meterRegistry);
+        this.shed = Counter.builder("booking.admission").tag("result", "sold_out").register(meterRegistry);
+    }
+
+    /**
+     * Returns when the request may go on, throws {@link AdmissionPendingException} with its place in the
+     * queue otherwise. {@code ticket} is the Admission-Ticket header of a queued request coming back.
+     */
+    public void admit(Long eventId, String ticket) {
+        if (!enabled || eventId == null) {
+            return;
+        }
+        String[] presented = ticket == null ? new String[0] : ticket.split("\\.", 2);
+        String number = presented.length == 2 && presented[0].matches("\\d{1,18}") ? presented[0] : "0";
+        String nonce = presented.length == 2 ? presented[1] : "";
+        String newNonce = UUID.randomUUID().toString();
+
+        List<?> result;
+        try {
+            result = redisTemplate.execute(
+                ADMIT_SCRIPT,
+                List.of(
+                    SeatInventoryService.remainingKey(eventId),
+                    bucketKey(eventId),
+                    issuedKey(eventId),
+                    servedKey(eventId),
+                    ticketsKey(eventId)
+                ),
+                String.valueOf(ratePerSecond),
+                String.valueOf(burst),
+                number,
+                nonce,
+                newNonce,
+                String.valueOf(ticketTtl.toMillis())
+            );
+        } catch (DataAccessException e) {
+            // Without Redis the seat reservation fails anyway, the waiting room does not add a second outage
+            admitted.increment();
+            return;
+        }
+
+        long status = (Long) result.get(0);
+        if (status == 1) {
+            admitted.increment();
+            return;
+        }
+        if (status == -1) {
+            shed.increment();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Event is full");
+        }
+
+        queued.increment();
+        long issued = (Long) result.get(1);
+        long position = (Long) result.get(2);
+        long etaSeconds = (long) Math.ceil(position / ratePerSecond);
+        String issuedNonce = String.valueOf(issued).equals(number) ? nonce : newNonce;
+        throw new AdmissionPendingException(
+            new AdmissionTicket(eventId, issued + "." + issuedNonce, position, etaSeconds),
+            Duration.ofSeconds(Math.min(Math.max(etaSeconds, 1), maxRetryAfter.toSeconds()))
+        );
+    }
+
+    private static String bucketKey(Long eventId) {
+        return "admission:{" + eventId + "}:bucket";
+    }
+
+    private static String issuedKey(Long eventId) {
+        return "admission:{" + eventId + "}:issued";
+    }
+
+    private static String servedKey(Long eventId) {
+        return "admission:{" + eventId + "}:served";
+    }
+
+    private static String ticketsKey(Long eventId) {
+        return "admission:{" + eventId + "}:tickets";
+    }
+}
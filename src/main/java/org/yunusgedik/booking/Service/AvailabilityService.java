@@ -0,0 +1,180 @@
+package org.yunusgedik.booking.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Model.Inventory.Availability;
+import org.yunusgedik.booking.Model.Inventory.EventInventory;
+import org.yunusgedik.booking.Repository.EventInventoryRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Availability of an event from the counters that are kept anyway: the event_inventory row for taken and
+ * waitlisted seats, the Redis counter for what is left. Reads are cached for a moment so a popular event
+ * costs one query per instance per second, however many clients poll it.
+ * <p>
+ * Subscribers get a stream instead. Every instance reads all booking events and marks their events dirty,
+ * each push interval sends one fresh snapshot per dirty event to its subscribers, however many bookings
+ * changed in between.
+ */
+@Service
+@Profile("!reactive")
+public class AvailabilityService {
+
+    private final EventInventoryRepository eventInventoryRepository;
+    private final EventCache eventCache;
+    private final SeatInventoryService seatInventoryService;
+    private final Cache<Long, Availability> cache;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Value("${availability.stream-timeout}")
+    private Duration streamTimeout;
+
+    @Value("${availability.max-subscribers}")
+    private int maxSubscribers;
+
+    public AvailabilityService(
+        EventInventoryRepository eventInventoryRepository,
+        EventCache eventCache,
+        SeatInventoryService seatInventoryService,
+        MeterRegistry meterRegistry,
+        @Value("${availability.cache-ttl}") Duration cacheTtl
+    ) {
+        this.eventInventoryRepository = eventInventoryRepository;
+        this.eventCache = eventCache;
+        this.seatInventoryService = seatInventoryService;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(cacheTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "availability");
+        Gauge.builder("availability.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public Availability get(Long eventId) {
+        return cache.get(eventId, this::load);
+    }
+
+    /**
+     * Opens a stream that starts with the current availability and then receives every change, coalesced
+     * to at most one message per push interval.
+     */
+    public SseEmitter subscribe(Long eventId) {
+        Availability current = get(eventId);
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many availability subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        subscribers.computeIfAbsent(eventId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(eventId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(eventId, emitter));
+        if (!send(emitter, current)) {
+            unsubscribe(eventId, emitter);
+        }
+        return emitter;
+    }
+
+    @KafkaListener(
+        // Every instance pushes to its own subscribers, so each one reads every partition, without a group
+        topicPartitions = @TopicPartition(
+            topic = BookingEventProducer.TOPIC,
+            partitions = "#{@kafkaPartitions.of('" + BookingEventProducer.TOPIC + "')}"
+        ),
+        containerFactory = "bookingEventListenerFactory"
+    )
+    public void onBookingEvent(BookingEvent bookingEvent) {
+        if (bookingEvent != null) {
+            dirty.add(bookingEvent.getEventId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${availability.push-interval-ms}")
+    public void push() {
+        Iterator<Long> changed = dirty.iterator();
+        while (changed.hasNext()) {
+            Long eventId = changed.next();
+            changed.remove();
+            cache.invalidate(eventId);
+            Set<SseEmitter> emitters = subscribers.get(eventId);
+            if (emitters == null || emitters.isEmpty()) {
+                continue;
+            }
+            Availability availability;
+            try {
+                availability = get(eventId);
+            } catch (RuntimeException e) {
+                // Tried again with the next change of the event
+                continue;
+            }
+            emitters.removeIf(emitter -> {
+                if (send(emitter, availability)) {
+                    return false;
+                }
+                subscriberCount.decrementAndGet();
+                return true;
+            });
+        }
+    }
+
+    private Availability load(Long eventId) {
+        Event event = eventCache.get(eventId);
+        EventInventory inventory = eventInventoryRepository.findById(eventId).orElse(null);
+        int confirmed = inventory == null ? 0 : inventory.getConfirmed();
+        int waitlisted = inventory == null ? 0 : inventory.getWaitlisted();
+        int remaining = Math.max(event.getCapacity() - confirmed, 0);
+        try {
+            // Also counts the seats reserved by bookings that are still being written
+            Long counter = seatInventoryService.remaining(eventId, event.getCapacity());
+            if (counter != null) {
+                remaining = (int) Math.max(Math.min(counter, event.getCapacity()), 0);
+            }
+        } catch (DataAccessException e) {
+            // Postgres alone is a good enough answer
+        }
+        return new Availability(eventId, event.getCapacity(), confirmed, waitlisted, remaining);
+    }
+
+    private static boolean send(SseEmitter emitter, Availability availability) {
+        try {
+            emitter.send(SseEmitter.event().name("availability").data(availability));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone, the container completes the emitter
+            return false;
+        }
+    }
+
+    private void unsubscribe(Long eventId, SseEmitter emitter) {
+        Set<SseEmitter> emitters = subscribers.get(eventId);
+        if (emitters != null && emitters.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(eventId, (id, current) -> current.isEmpty() ? null : current);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bookings shared across instances through Redis, so status polls are answered without Postgres. Entries
+ * are dropped once a change to the booking commits; the TTL bounds how long a read that raced with a
+ * change can keep serving the old row.
+ */
+@Service
+public class BookingCache {
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public BookingCache(
+        StringRedisTemplate redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${booking-cache.ttl}") Duration ttl
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.hits = Counter.builder("cache.gets").tag("cache", "booking").tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "booking").tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", "booking").register(meterRegistry);
+    }
+
+    public Booking get(Long id) {
+        String cached;
+        try {
+            cached = redisTemplate.opsForValue().get(key(id));
+        } catch (DataAccessException e) {
+            // Postgres can still answer
+            cached = null;
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return decode(cached);
+    }
+
+    public void put(Booking booking) {
+        try {
+            redisTemplate.opsForValue().set(key(booking.getId()), encode(booking), ttl);
+        } catch (DataAccessException e) {
+            // Not cached, the next read goes to Postgres again
+        }
+    }
+
+    /**
+     * Drops the booking once the surrounding transaction commits, or right away outside of one. Dropping
+     * earlier would let a concurrent read cache the row as it was before the change.
+     */
+    public void evict(Long id) {
+        afterCommit(() -> delete(List.of(id)));
+    }
+
+    /**
+     * {@link #evict} for many bookings with a single DEL.
+     */
+    public void evictAll(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            afterCommit(() -> delete(ids));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void delete(List<Long> ids) {
+        redisTemplate.delete(ids.stream().map(BookingCache::key).toList());
+        evictions.increment(ids.size());
+    }
+
+    // id|userId|eventId|status|bookingTime|createdAt|holdExpiresAt, a few dozen bytes instead of a JSON document
+    static String encode(Booking booking) {
+        return booking.getId()
+            + "|" + orEmpty(booking.getUserId())
+            + "|" + orEmpty(booking.getEventId())
+            + "|" + orEmpty(booking.getStatus())
+            + "|" + orEmpty(booking.getBookingTime())
+            + "|" + orEmpty(booking.getCreatedAt())
+            + "|" + orEmpty(booking.getHoldExpiresAt());
+    }
+
+    static Booking decode(String value) {
+        String[] fields = value.split("\\|", -1);
+        Booking booking = new Booking();
+        booking.setId(Long.valueOf(fields[0]));
+        booking.setUserId(fields[1].isEmpty() ? null : Long.valueOf(fields[1]));
+        booking.setEventId(fields[2].isEmpty() ? null : Long.valueOf(fields[2]));
+        booking.setStatus(fields[3].isEmpty() ? null : BookingStatus.valueOf(fields[3]));
+        booking.setBookingTime(fields[4].isEmpty() ? null : LocalDateTime.parse(fields[4]));
+        booking.setCreatedAt(fields[5].isEmpty() ? null : Instant.parse(fields[5]));
+        // Entries written before holds existed have six fields
+        if (fields.length > 6 && !fields[6].isEmpty()) {
+            booking.setHoldExpiresAt(Instant.parse(fields[6]));
+        }
+        return booking;
+    }
+
+    private static String orEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    static String key(Long id) {
+        return "booking:cache:" + id;
+    }
+}
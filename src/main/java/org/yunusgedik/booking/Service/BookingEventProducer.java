@@ -1,18 +1,47 @@
 package org.yunusgedik.booking.Service;
 
-import org.springframework.kafka.core.KafkaTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Outbox.OutboxEvent;
+import org.yunusgedik.booking.Repository.OutboxEventRepository;
 
+import java.util.List;
+
+/**
+ * Queues booking events in the outbox table as part of the caller's transaction, {@link OutboxRelay}
+ * publishes them to Kafka once committed.
+ */
 @Service
 public class BookingEventProducer {
-    private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
+    static final String TOPIC = "booking-events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
 
-    public BookingEventProducer(KafkaTemplate<String, BookingEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public BookingEventProducer(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendBookingEvent(BookingEvent event) {
-        kafkaTemplate.send("booking-events", String.valueOf(event.getBookingId()), event);
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendBookingEvents(List<BookingEvent> events) {
+        outboxEventRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+    }
+
+    private OutboxEvent toOutboxEvent(BookingEvent event) {
+        try {
+            return new OutboxEvent(TOPIC, String.valueOf(event.getBookingId()), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking event", e);
+        }
     }
-}
\ No newline at end of file
+}
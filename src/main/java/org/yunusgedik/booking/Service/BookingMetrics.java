@@ -0,0 +1,69 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Stages of the booking pipeline as observations, each one is a booking.stage timer tagged with its stage
+ * and a span in the request's trace. Redis, HTTP, JDBC and Kafka calls inside a stage get their own
+ * child spans from their instrumentation.
+ */
+@Component
+public class BookingMetrics {
+
+    private final ObservationRegistry observationRegistry;
+    private final Counter eventFull;
+    private final Counter lockUnavailable;
+    private final Counter fencingAborted;
+    private final DistributionSummary groupSize;
+
+    public BookingMetrics(ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.eventFull = rejection(meterRegistry, "event_full");
+        this.lockUnavailable = rejection(meterRegistry, "lock_unavailable");
+        this.fencingAborted = rejection(meterRegistry, "fencing_abort");
+        this.groupSize = DistributionSummary.builder("booking.group.size")
+            .description("Bookings committed together by an event's writer")
+            .register(meterRegistry);
+    }
+
+    public <T> T stage(String stage, Supplier<T> work) {
+        return Observation.createNotStarted("booking.stage", observationRegistry)
+            .contextualName("booking " + stage)
+            .lowCardinalityKeyValue("stage", stage)
+            .observe(work);
+    }
+
+    public void stage(String stage, Runnable work) {
+        Observation.createNotStarted("booking.stage", observationRegistry)
+            .contextualName("booking " + stage)
+            .lowCardinalityKeyValue("stage", stage)
+            .observe(work);
+    }
+
+    public void eventFull() {
+        eventFull.increment();
+    }
+
+    public void lockUnavailable() {
+        lockUnavailable.increment();
+    }
+
+    public void fencingAborted() {
+        fencingAborted.increment();
+    }
+
+    public void groupCommitted(int bookings) {
+        groupSize.record(bookings);
+    }
+
+    private static Counter rejection(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("booking.rejections").tag("reason", reason).register(meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package org.yunusgedik.booking.Service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.yunusgedik.booking.Model.Booking.Booking;
+
+/**
+ * Bookings loaded during the current HTTP request, so the ownership check and the service method that
+ * follows it share one database read. Outside a request nothing is cached.
+ */
+@Component
+public class BookingRequestCache {
+
+    private static final String PREFIX = BookingRequestCache.class.getName() + ".";
+
+    public Booking get(Long id) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null
+            ? null
+            : (Booking) attributes.getAttribute(PREFIX + id, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public void put(Booking booking) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PREFIX + booking.getId(), booking, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public void remove(Long id) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(PREFIX + id, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -1,118 +1,340 @@
 package org.yunusgedik.booking.Service;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Helper.BookingMapper;
 import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingBatchResult;
+import org.yunusgedik.booking.Model.Booking.BookingCommand;
 import org.yunusgedik.booking.Model.Booking.BookingDTO;
 import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingPage;
 import org.yunusgedik.booking.Model.Booking.BookingStatus;
 import org.yunusgedik.booking.Model.Event.Event;
 import org.yunusgedik.booking.Repository.BookingRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final ModelMapper modelMapper;
-    private final RestTemplate restTemplate;
-    private final StringRedisTemplate redisTemplate;
+    private final BookingMapper bookingMapper;
+    private final EventCache eventCache;
+    private final WaitlistQueue waitlistQueue;
     private final BookingEventProducer bookingEventProducer;
+    private final SeatInventoryService seatInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransactionTemplate;
+    private final BookingRequestCache bookingRequestCache;
+    private final BookingCache bookingCache;
+    private final ObjectMapper objectMapper;
+    private final BookingMetrics bookingMetrics;
+    private final HoldExpiryService holdExpiryService;
 
-    @Value("${event-service.base-url}")
-    private String eventServiceBaseUrl;
+    @Value("${booking.batch.max-size}")
+    private Integer batchMaxSize;
 
-    @Value("${redis.timeout}")
-    private Integer redisTimeout;
+    @Value("${booking.page.max-size}")
+    private Integer pageMaxSize;
+
+    @Value("${booking.export.fetch-size}")
+    private Integer exportFetchSize;
+
+    @Value("${booking.hold.ttl}")
+    private Duration holdTtl;
 
     public BookingService(
         BookingRepository bookingRepository,
-        ModelMapper modelMapper,
-        RestTemplate restTemplate,
-        StringRedisTemplate redisTemplate,
-        BookingEventProducer bookingEventProducer
+        BookingMapper bookingMapper,
+        EventCache eventCache,
+        WaitlistQueue waitlistQueue,
+        BookingEventProducer bookingEventProducer,
+        SeatInventoryService seatInventoryService,
+        TransactionTemplate transactionTemplate,
+        BookingRequestCache bookingRequestCache,
+        BookingCache bookingCache,
+        ObjectMapper objectMapper,
+        BookingMetrics bookingMetrics,
+        HoldExpiryService holdExpiryService
     ) {
         this.bookingRepository = bookingRepository;
-        this.modelMapper = modelMapper;
-        this.restTemplate = restTemplate;
-        this.redisTemplate = redisTemplate;
+        this.bookingMapper = bookingMapper;
+        this.eventCache = eventCache;
+        this.waitlistQueue = waitlistQueue;
         this.bookingEventProducer = bookingEventProducer;
+        this.seatInventoryService = seatInventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.readTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readTransactionTemplate.setReadOnly(true);
+        this.bookingRequestCache = bookingRequestCache;
+        this.bookingCache = bookingCache;
+        this.objectMapper = objectMapper;
+        this.bookingMetrics = bookingMetrics;
+        this.holdExpiryService = holdExpiryService;
     }
 
     public Booking get(Long id) {
-        return bookingRepository.findById(id).orElse(null);
+        return readBooking(id);
+    }
+
+    public boolean isOwner(Long bookingId, Long userId) {
+        // The owner never changes, so a cached copy is good enough to check it
+        Booking booking = findBooking(bookingId);
+        return booking != null && booking.getUserId().equals(userId);
+    }
+
+    /**
+     * Ownership check for endpoints that only read the booking, which may come from a replica.
+     */
+    public boolean isViewer(Long bookingId, Long userId) {
+        Booking booking = readBooking(bookingId);
+        return booking != null && booking.getUserId().equals(userId);
+    }
+
+    // A booking the replica does not have may just have been created, the primary has the final word on a miss
+    private Booking readBooking(Long id) {
+        Booking booking = readTransactionTemplate.execute(status -> findBooking(id));
+        return booking != null ? booking : findBooking(id);
+    }
+
+    private Booking findBooking(Long id) {
+        Booking booking = bookingRequestCache.get(id);
+        if (booking != null) {
+            return booking;
+        }
+        booking = bookingCache.get(id);
+        if (booking == null) {
+            booking = bookingRepository.findById(id).orElse(null);
+            // A replica may still return the row from before a write whose eviction already happened
+            if (booking != null && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                bookingCache.put(booking);
+            }
+        }
+        if (booking != null) {
+            bookingRequestCache.put(booking);
+        }
+        return booking;
+    }
+
+    // Writes start from the row itself, never from a cached copy that may predate a committed change
+    private Booking loadBooking(Long id) {
+        return bookingRepository.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+    }
+
+    public BookingPage getAll(BookingFilter filter, Long afterId, int size) {
+        int limit = Math.min(Math.max(size, 1), pageMaxSize);
+        List<Booking> items = readTransactionTemplate.execute(status ->
+            bookingRepository.findPage(filter, afterId, limit));
+        Long nextAfterId = items.size() == limit ? items.get(items.size() - 1).getId() : null;
+        return new BookingPage(items, nextAfterId);
     }
 
-    public List<Booking> getAll() {
-        return bookingRepository.findAll();
+    @Transactional(readOnly = true)
+    public void export(BookingFilter filter, OutputStream out) throws IOException {
+        // Flushing is left to the generator's buffer, a flush per row would turn into a network write per row
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Booking> bookings = bookingRepository.streamAll(filter, exportFetchSize);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Each line ends with its own newline, the generator's default separator would start the next with a space
+            generator.setRootValueSeparator(null);
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
     }
 
     public Booking create(BookingDTO bookingDTO) {
-        Long eventId = bookingDTO.eventId();
-        String counterKey = "lock:counter:event:" + eventId;
-        String lockKey = "lock:event:" + eventId;
+        Event event = fetchEventDetails(bookingDTO.eventId());
+        validateEvent(event);
+        reserveSeat(event);
 
-        Long fencingToken = acquireLock(counterKey, lockKey);
+        return saveReservedAndPublish(prepareBooking(bookingDTO), event);
+    }
 
-        try {
-            Event event = fetchEventDetails(eventId);
-            validateEvent(event);
-            checkCapacity(event.getId(), event.getCapacity());
-            Booking booking = prepareBooking(bookingDTO);
+    /**
+     * Takes a seat for the user while they pay, the booking is HELD until it is confirmed or the hold runs
+     * out and {@link HoldExpiryService} gives the seat back.
+     */
+    public Booking hold(BookingDTO bookingDTO) {
+        Event event = fetchEventDetails(bookingDTO.eventId());
+        validateEvent(event);
+        reserveSeat(event);
+
+        Booking booking = prepareBooking(bookingDTO);
+        booking.setStatus(BookingStatus.HELD);
+        booking.setHoldExpiresAt(Instant.now().plus(holdTtl));
+        Booking bookingSaved = saveReservedAndPublish(booking, event);
+        holdExpiryService.schedule(bookingSaved);
+        return bookingSaved;
+    }
+
+    public List<BookingBatchResult> createBatch(List<BookingDTO> bookingDTOs) {
+        if (bookingDTOs.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch exceeds " + batchMaxSize + " bookings");
+        }
 
-            // Check fencing token right before saving
-            validateFencingToken(lockKey, fencingToken, "Lock lost before save, aborting booking");
+        BookingBatchResult[] results = new BookingBatchResult[bookingDTOs.size()];
+        Map<Long, List<Integer>> indexesByEvent = new LinkedHashMap<>();
+        for (int i = 0; i < bookingDTOs.size(); i++) {
+            Long eventId = bookingDTOs.get(i).eventId();
+            if (eventId == null) {
+                results[i] = BookingBatchResult.failure(i, "Event is required");
+            } else {
+                indexesByEvent.computeIfAbsent(eventId, id -> new ArrayList<>()).add(i);
+            }
+        }
 
-            Booking bookingSaved = bookingRepository.save(booking);
+        // Capacity is reserved once per event, every granted item is then inserted in one batched transaction
+        List<Integer> reservedIndexes = new ArrayList<>();
+        List<Booking> reserved = new ArrayList<>();
+        Map<Long, Event> events = new HashMap<>();
+        for (Map.Entry<Long, List<Integer>> group : indexesByEvent.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            int granted;
+            try {
+                Event event = fetchEventDetails(group.getKey());
+                validateEvent(event);
+                granted = bookingMetrics.stage("reserve", () ->
+                    seatInventoryService.reserveUpTo(event.getId(), event.getCapacity(), indexes.size()));
+                events.put(group.getKey(), event);
+            } catch (RuntimeException e) {
+                indexes.forEach(i -> results[i] = BookingBatchResult.failure(i, e.getMessage()));
+                continue;
+            }
+            for (int n = 0; n < indexes.size(); n++) {
+                int i = indexes.get(n);
+                if (n < granted) {
+                    reservedIndexes.add(i);
+                    reserved.add(prepareBooking(bookingDTOs.get(i)));
+                } else {
+                    bookingMetrics.eventFull();
+                    results[i] = BookingBatchResult.failure(i, "Event is full");
+                }
+            }
+        }
 
-            produceKafkaBookingEvent(bookingSaved, event.getPrice());
+        List<Booking> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Map<Long, Integer> seatsByEvent = new HashMap<>();
+                reserved.forEach(booking -> seatsByEvent.merge(booking.getEventId(), 1, Integer::sum));
+                seatsByEvent.forEach((eventId, seats) ->
+                    seatInventoryService.confirmSeats(eventId, events.get(eventId).getCapacity(), seats));
+                List<Booking> bookingsSaved = bookingMetrics.stage("save", () -> bookingRepository.saveAll(reserved));
+                bookingMetrics.stage("publish", () -> bookingEventProducer.sendBookingEvents(bookingsSaved.stream()
+                    .map(booking -> toBookingEvent(booking, events.get(booking.getEventId()).getPrice()))
+                    .toList()));
+                return bookingsSaved;
+            });
+        } catch (RuntimeException e) {
+            reserved.forEach(booking -> seatInventoryService.release(booking.getEventId(), 1));
+            throw e;
+        }
 
-            return bookingSaved;
-        } finally {
-            redisTemplate.delete(lockKey);
+        for (int n = 0; n < saved.size(); n++) {
+            results[reservedIndexes.get(n)] = BookingBatchResult.success(reservedIndexes.get(n), saved.get(n));
         }
+
+        return Arrays.asList(results);
     }
 
-    private Long acquireLock(String counterKey, String lockKey) {
-        Long fencingToken = redisTemplate.opsForValue().increment(counterKey);
-        Boolean lockAcquired = redisTemplate.opsForValue()
-            .setIfAbsent(
-                lockKey,
-                Objects.requireNonNull(fencingToken).toString(),
-                redisTimeout,
-                java.util.concurrent.TimeUnit.SECONDS
-            );
+    /**
+     * Creates the bookings of one event queued by {@link EventCommandProcessor}: one seat reservation for all
+     * of them, then one transaction with a single inventory update, one batched insert and their outbox rows.
+     * Seats go to the commands in order. Returns the saved bookings in command order, null for the commands
+     * that found the event full.
+     */
+    public List<Booking> createGroup(Event event, List<BookingCommand> commands) {
+        validateEvent(event);
+        int granted = bookingMetrics.stage("reserve", () ->
+            seatInventoryService.reserveUpTo(event.getId(), event.getCapacity(), commands.size()));
+
+        List<Booking> reserved = new ArrayList<>(granted);
+        for (BookingCommand command : commands.subList(0, granted)) {
+            Booking booking = prepareBooking(command.booking());
+            if (command.hold()) {
+                booking.setStatus(BookingStatus.HELD);
+                booking.setHoldExpiresAt(Instant.now().plus(holdTtl));
+            }
+            reserved.add(booking);
+        }
+        for (int i = granted; i < commands.size(); i++) {
+            bookingMetrics.eventFull();
+        }
 
-        if (Boolean.FALSE.equals(lockAcquired)) {
-            throw new IllegalStateException("Could not acquire lock");
+        List<Booking> saved = List.of();
+        if (!reserved.isEmpty()) {
+            try {
+                saved = transactionTemplate.execute(status -> {
+                    seatInventoryService.confirmSeats(event.getId(), event.getCapacity(), reserved.size());
+                    List<Booking> bookingsSaved = bookingMetrics.stage("save", () ->
+                        bookingRepository.saveAll(reserved));
+                    bookingMetrics.stage("publish", () -> bookingEventProducer.sendBookingEvents(
+                        bookingsSaved.stream().map(booking -> toBookingEvent(booking, event.getPrice())).toList()));
+                    return bookingsSaved;
+                });
+            } catch (RuntimeException e) {
+                seatInventoryService.release(event.getId(), reserved.size());
+                throw e;
+            }
+            saved.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.HELD)
+                .forEach(holdExpiryService::schedule);
+            bookingMetrics.groupCommitted(saved.size());
         }
-        return fencingToken;
+
+        List<Booking> results = new ArrayList<>(saved);
+        while (results.size() < commands.size()) {
+            results.add(null);
+        }
+        return results;
     }
 
     private Event fetchEventDetails(Long eventId) {
-        String url = eventServiceBaseUrl + "/event/" + eventId;
-        ResponseEntity<Event> response = restTemplate.getForEntity(url, Event.class);
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-            throw new RuntimeException("Event not found");
-        }
-        return response.getBody();
+        return bookingMetrics.stage("fetch-event", () -> eventCache.get(eventId));
     }
 
-    private void validateFencingToken(String lockKey, Long expectedToken, String throwString) {
-        String currentToken = redisTemplate.opsForValue().get(lockKey);
-        if (!expectedToken.toString().equals(currentToken)) {
-            throw new IllegalStateException(throwString);
+    private Event awaitEventDetails(CompletableFuture<Event> pending) {
+        try {
+            return bookingMetrics.stage("fetch-event", pending::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Event service timed out");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
@@ -122,15 +344,52 @@ public class BookingService {
         }
     }
 
-    private void checkCapacity(Long eventId, int capacity) {
-        int currentBookings = bookingRepository.countByEventIdAndStatus(eventId, BookingStatus.CONFIRMED);
-        if (currentBookings >= capacity) {
+    private void reserveSeat(Event event) {
+        if (!tryReserveSeat(event)) {
+            bookingMetrics.eventFull();
             throw new IllegalStateException("Event is full");
         }
     }
 
+    private boolean tryReserveSeat(Event event) {
+        return bookingMetrics.stage("reserve", () -> seatInventoryService.tryReserve(event.getId(), event.getCapacity()));
+    }
+
+    // The row, its seat count and its outbox message commit together
+    private Booking saveAndPublish(Booking booking, BookingStatus previous, Double price, Runnable seatChange) {
+        return transactionTemplate.execute(status -> {
+            seatChange.run();
+            Booking bookingSaved;
+            if (previous == null) {
+                bookingSaved = bookingMetrics.stage("save", () -> bookingRepository.save(booking));
+            } else {
+                bookingMetrics.stage("save", () -> claimTransition(booking, previous));
+                bookingCache.evict(booking.getId());
+                bookingSaved = booking;
+            }
+            bookingMetrics.stage("publish", () -> produceKafkaBookingEvent(bookingSaved, price));
+            return bookingSaved;
+        });
+    }
+
+    private Booking saveReservedAndPublish(Booking booking, Event event) {
+        return saveReservedAndPublish(booking, null, event, 0);
+    }
+
+    private Booking saveReservedAndPublish(Booking booking, BookingStatus previous, Event event, int waitlistedDelta) {
+        try {
+            return saveAndPublish(booking, previous, event.getPrice(), () -> {
+                seatInventoryService.confirmSeats(event.getId(), event.getCapacity(), 1);
+                seatInventoryService.adjustWaitlisted(event.getId(), waitlistedDelta);
+            });
+        } catch (RuntimeException e) {
+            seatInventoryService.release(booking.getEventId(), 1);
+            throw e;
+        }
+    }
+
     private Booking prepareBooking(BookingDTO bookingDTO) {
-        Booking booking = modelMapper.map(bookingDTO, Booking.class);
+        Booking booking = bookingMapper.toBooking(bookingDTO);
         booking.setBookingTime(LocalDateTime.now());
         booking.setCreatedAt(Instant.now());
         booking.setStatus(BookingStatus.CONFIRMED);
@@ -138,100 +397,158 @@ public class BookingService {
     }
 
     public Booking update(Long id, BookingDTO bookingDTO) {
-        Booking booking = bookingRepository.findById(id).orElseThrow(() ->
-            new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")
-        );
-        modelMapper.map(bookingDTO, booking);
-        return bookingRepository.save(booking);
+        return transactionTemplate.execute(status -> {
+            // Locked, so a cancel or confirm committing meanwhile is not written over with the status read here
+            Booking booking = bookingRepository.findForUpdate(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+            bookingMapper.update(bookingDTO, booking);
+            bookingCache.evict(id);
+            return booking;
+        });
     }
 
     public Booking delete(Long id) {
-        Booking booking = bookingRepository.findById(id).orElseThrow(() ->
-            new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")
-        );
-        bookingRepository.delete(booking);
+        Booking booking = loadBooking(id);
+        boolean seatHeld = booking.getStatus().holdsSeat();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Only the request that removes the row gives its seat back, a hold that expired under us already did
+            if (bookingRepository.deleteIfStatus(id, booking.getEventId(), booking.getStatus()) == 0) {
+                throw changedConcurrently(booking.getStatus());
+            }
+            if (seatHeld) {
+                seatInventoryService.releaseSeats(booking.getEventId(), 1);
+            }
+            if (booking.getStatus() == BookingStatus.WAITLISTED) {
+                seatInventoryService.adjustWaitlisted(booking.getEventId(), -1);
+            }
+            bookingCache.evict(id);
+        });
+        bookingRequestCache.remove(id);
+        if (seatHeld) {
+            seatInventoryService.release(booking.getEventId(), 1);
+        }
         return booking;
     }
 
     public Booking confirm(Long id) {
-        Booking booking = bookingRepository.findById(id).orElseThrow(() ->
-            new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")
-        );
+        Booking booking = loadBooking(id);
         Event event = fetchEventDetails(booking.getEventId());
+        if (booking.getStatus() == BookingStatus.HELD) {
+            return confirmHold(booking, event);
+        }
 
+        BookingStatus previous = booking.getStatus();
+        boolean wasWaitlisted = previous == BookingStatus.WAITLISTED;
+        boolean reserved = false;
         if (booking.getStatus() != BookingStatus.CONFIRMED) {
-            if (isCapacityFull(event)) {
-                booking.setStatus(BookingStatus.WAITLISTED);
-            } else {
-                booking.setStatus(BookingStatus.CONFIRMED);
-            }
+            reserved = tryReserveSeat(event);
+            booking.setStatus(reserved ? BookingStatus.CONFIRMED : BookingStatus.WAITLISTED);
         }
 
-        Booking bookingSaved = bookingRepository.save(booking);
-
-        Double price = (bookingSaved.getStatus() == BookingStatus.WAITLISTED)
+        Double price = (booking.getStatus() == BookingStatus.WAITLISTED)
             ? null
             : event.getPrice();
 
-        produceKafkaBookingEvent(bookingSaved, price);
-
+        if (reserved) {
+            return saveReservedAndPublish(booking, previous, event, wasWaitlisted ? -1 : 0);
+        }
+        int waitlistedDelta = booking.getStatus() == BookingStatus.WAITLISTED && !wasWaitlisted ? 1 : 0;
+        Booking bookingSaved = saveAndPublish(booking, previous, price,
+            () -> seatInventoryService.adjustWaitlisted(booking.getEventId(), waitlistedDelta));
+        if (bookingSaved.getStatus() == BookingStatus.WAITLISTED) {
+            waitlistQueue.add(bookingSaved);
+        }
         return bookingSaved;
     }
 
-    public Booking cancel(Long id) {
-        Booking booking = bookingRepository.findById(id).orElseThrow(() ->
-            new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")
-        );
-        booking.setStatus(BookingStatus.CANCELLED);
-        Booking bookingSaved = bookingRepository.save(booking);
-
-        Event event = fetchEventDetails(bookingSaved.getEventId());
-        produceKafkaBookingEvent(bookingSaved, event.getPrice());
-
-        promoteWaitlisted(bookingSaved.getEventId());
-        return bookingSaved;
+    // The seat was taken with the hold, confirming only has to beat the expiry
+    private Booking confirmHold(Booking booking, Event event) {
+        return transactionTemplate.execute(status -> {
+            if (bookingRepository.confirmHold(booking.getId(), booking.getEventId(), Instant.now()) == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Hold expired");
+            }
+            booking.setStatus(BookingStatus.CONFIRMED);
+            bookingCache.evict(booking.getId());
+            bookingMetrics.stage("publish", () -> produceKafkaBookingEvent(booking, event.getPrice()));
+            return booking;
+        });
     }
 
-    private boolean isCapacityFull(Event event) {
-        return bookingRepository.countByEventIdAndStatus(event.getId(), BookingStatus.CONFIRMED)
-               >= event.getCapacity();
+    /**
+     * Confirms the given bookings that are still waitlisted, in one transaction, for seats the caller has
+     * already reserved. Returns how many were confirmed.
+     */
+    public int confirmWaitlisted(List<Long> ids, Event event) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Booking> promoted = transactionTemplate.execute(status -> {
+            List<Booking> waitlisted = bookingRepository.findAllById(ids).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITLISTED)
+                .toList();
+            seatInventoryService.confirmSeats(event.getId(), event.getCapacity(), waitlisted.size());
+            seatInventoryService.adjustWaitlisted(event.getId(), -waitlisted.size());
+            waitlisted.forEach(booking -> {
+                booking.setStatus(BookingStatus.CONFIRMED);
+                bookingCache.evict(booking.getId());
+            });
+            List<Booking> bookingsSaved = bookingMetrics.stage("save", () -> bookingRepository.saveAll(waitlisted));
+            bookingMetrics.stage("publish", () -> bookingEventProducer.sendBookingEvents(bookingsSaved.stream()
+                .map(booking -> toBookingEvent(booking, event.getPrice()))
+                .toList()));
+            return bookingsSaved;
+        });
+        return promoted == null ? 0 : promoted.size();
     }
 
-    private void promoteWaitlisted(Long eventId) {
-        String counterKey = "lock:counter:promote:event:" + eventId;
-        String lockKey = "lock:promote:event:" + eventId;
-
-        Long fencingToken = acquireLock(counterKey, lockKey);
+    public Booking cancel(Long id) {
+        Booking booking = loadBooking(id);
+        // The event is only needed for the message, fetch it while the booking is prepared
+        CompletableFuture<Event> pendingEvent = eventCache.getAsync(booking.getEventId());
+        BookingStatus previous = booking.getStatus();
+        boolean seatHeld = previous.holdsSeat();
+        booking.setStatus(BookingStatus.CANCELLED);
 
-        try {
-            Booking waitlisted = bookingRepository
-                .findFirstByEventIdAndStatusOrderByBookingTimeAsc(eventId, BookingStatus.WAITLISTED);
-            if (waitlisted != null) {
-                // Validate fencing token before proceeding
-                validateFencingToken(lockKey, fencingToken, "Lock lost before promotion, aborting");
+        Event event = awaitEventDetails(pendingEvent);
+        Booking bookingSaved = transactionTemplate.execute(status -> {
+            // The status moves before the seat does, two cancels of one booking free its seat only once
+            claimTransition(booking, previous);
+            if (seatHeld) {
+                seatInventoryService.releaseSeats(booking.getEventId(), 1);
+            }
+            if (previous == BookingStatus.WAITLISTED) {
+                seatInventoryService.adjustWaitlisted(booking.getEventId(), -1);
+            }
+            bookingCache.evict(id);
+            bookingMetrics.stage("publish", () -> produceKafkaBookingEvent(booking, event.getPrice()));
+            return booking;
+        });
+        if (seatHeld) {
+            // The freed seat is handed to the waitlist by WaitlistPromoter once the cancellation is published
+            seatInventoryService.release(bookingSaved.getEventId(), 1);
+        }
 
-                waitlisted.setStatus(BookingStatus.CONFIRMED);
-                Booking bookingSaved = bookingRepository.save(waitlisted);
+        return bookingSaved;
+    }
 
-                Event event = fetchEventDetails(bookingSaved.getEventId());
-                produceKafkaBookingEvent(bookingSaved, event.getPrice());
-            }
-        } finally {
-            redisTemplate.delete(lockKey);
+    // The loser of a race on one booking gets a 409 and its seat change is rolled back
+    private void claimTransition(Booking booking, BookingStatus previous) {
+        if (bookingRepository.transition(booking.getId(), booking.getEventId(), previous, booking.getStatus()) == 0) {
+            throw changedConcurrently(previous);
         }
+    }
 
+    // A hold that expired under us gave its seat back already, anything else was changed by another request
+    private static ResponseStatusException changedConcurrently(BookingStatus previous) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+            previous == BookingStatus.HELD ? "Hold expired" : "Booking was changed concurrently");
     }
 
     private void produceKafkaBookingEvent(Booking booking, Double price) {
-        bookingEventProducer.sendBookingEvent(
-            new BookingEvent(
-                booking.getId(),
-                booking.getUserId(),
-                booking.getEventId(),
-                booking.getStatus(),
-                price,
-                LocalDateTime.now()
-            )
-        );
+        bookingEventProducer.sendBookingEvent(toBookingEvent(booking, price));
+    }
+
+    private BookingEvent toBookingEvent(Booking booking, Double price) {
+        return bookingMapper.toBookingEvent(booking, price);
     }
 }
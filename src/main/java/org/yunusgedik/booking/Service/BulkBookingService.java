@@ -0,0 +1,294 @@
+package org.yunusgedik.booking.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Booking.BookingStatusChange;
+import org.yunusgedik.booking.Model.Bulk.BulkAction;
+import org.yunusgedik.booking.Model.Bulk.BulkBookingJob;
+import org.yunusgedik.booking.Model.Bulk.BulkJobStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Repository.BulkBookingJobRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cancels or confirms every booking of an event in the background. Each chunk is one set-based UPDATE that
+ * commits together with its event_inventory change, its outbox rows and the job's cursor, so a job that
+ * stopped anywhere continues exactly where it left off. {@link OutboxRelay} publishes the messages in
+ * batches like any others.
+ */
+@Service
+public class BulkBookingService {
+
+    private static final List<BookingStatus> CANCELLABLE =
+        List.of(BookingStatus.CONFIRMED, BookingStatus.HELD, BookingStatus.WAITLISTED);
+    private static final List<BookingStatus> CONFIRMABLE = List.of(BookingStatus.WAITLISTED);
+
+    private final BulkBookingJobRepository jobRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final EventCache eventCache;
+    private final SeatInventoryService seatInventoryService;
+    private final WaitlistQueue waitlistQueue;
+    private final BookingEventProducer bookingEventProducer;
+    private final BookingCache bookingCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    // Jobs this instance is running, so a resume never starts a second runner next to a slow one
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    @Value("${booking-bulk.chunk-size}")
+    private int chunkSize;
+
+    @Value("${booking-bulk.stale-after}")
+    private Duration staleAfter;
+
+    public BulkBookingService(
+        BulkBookingJobRepository jobRepository,
+        BookingRepository bookingRepository,
+        BookingMapper bookingMapper,
+        EventCache eventCache,
+        SeatInventoryService seatInventoryService,
+        WaitlistQueue waitlistQueue,
+        BookingEventProducer bookingEventProducer,
+        BookingCache bookingCache,
+        TransactionTemplate transactionTemplate,
+        @Value("${booking-bulk.concurrency}") int concurrency
+    ) {
+        this.jobRepository = jobRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingMapper = bookingMapper;
+        this.eventCache = eventCache;
+        this.seatInventoryService = seatInventoryService;
+        this.waitlistQueue = waitlistQueue;
+        this.bookingEventProducer = bookingEventProducer;
+        this.bookingCache = bookingCache;
+        this.transactionTemplate = transactionTemplate;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("booking-bulk-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+    }
+
+    /**
+     * Starts a job for the event, or returns the one already running with the same action.
+     */
+    public BulkBookingJob start(Long eventId, BulkAction action) {
+        BulkBookingJob running = jobRepository.findByEventIdAndStatus(eventId, BulkJobStatus.RUNNING).orElse(null);
+        if (running == null) {
+            int total = bookingRepository.countByEventIdAndStatusIn(eventId, fromStatuses(action));
+            try {
+                running = jobRepository.save(new BulkBookingJob(eventId, action, total));
+            } catch (DataIntegrityViolationException e) {
+                // Another start for the same event won the race
+                running = jobRepository.findByEventIdAndStatus(eventId, BulkJobStatus.RUNNING).orElseThrow(() -> e);
+            }
+        }
+        if (running.getAction() != action) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "A " + running.getAction() + " job is already running for this event");
+        }
+        submit(running.getId());
+        return running;
+    }
+
+    public BulkBookingJob get(Long jobId) {
+        return jobRepository.findById(jobId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found"));
+    }
+
+    /**
+     * Continues a failed or stuck job from its cursor.
+     */
+    public BulkBookingJob resume(Long jobId) {
+        BulkBookingJob job = get(jobId);
+        if (job.getStatus() == BulkJobStatus.COMPLETED) {
+            return job;
+        }
+        if (job.getStatus() == BulkJobStatus.FAILED) {
+            job.setStatus(BulkJobStatus.RUNNING);
+            job.setError(null);
+            job.setUpdatedAt(Instant.now());
+            try {
+                job = jobRepository.save(job);
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Another job is running for this event", e);
+            }
+        }
+        submit(job.getId());
+        return job;
+    }
+
+    @Scheduled(fixedDelayString = "${booking-bulk.resume-interval-ms}")
+    public void resumeStale() {
+        jobRepository.findByStatusAndUpdatedAtBefore(BulkJobStatus.RUNNING, Instant.now().minus(staleAfter))
+            .forEach(job -> submit(job.getId()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished jobs stay RUNNING and are resumed by the next instance that sees them go stale
+        executor.shutdown();
+    }
+
+    private void submit(Long jobId) {
+        if (active.add(jobId)) {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    active.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            BulkBookingJob job = get(jobId);
+            if (job.getStatus() != BulkJobStatus.RUNNING) {
+                return;
+            }
+            Event event = findEvent(job);
+            if (job.getAction() == BulkAction.CANCEL) {
+                // Seats freed here belong to nobody, the waitlist is cancelled along with everything else
+                waitlistQueue.close(job.getEventId());
+            }
+            boolean more = true;
+            while (more) {
+                more = job.getAction() == BulkAction.CANCEL
+                    ? cancelChunk(jobId, job.getEventId(), event)
+                    : confirmChunk(jobId, event);
+            }
+        } catch (RuntimeException e) {
+            fail(jobId, e);
+        }
+    }
+
+    private boolean cancelChunk(Long jobId, Long eventId, Event event) {
+        int[] released = new int[1];
+        Boolean more = transactionTemplate.execute(status -> {
+            BulkBookingJob job = lockRunning(jobId);
+            if (job == null) {
+                return false;
+            }
+            List<BookingStatusChange> changes = bookingRepository.updateStatusChunk(
+                job.getEventId(), CANCELLABLE, BookingStatus.CANCELLED, job.getLastBookingId(), chunkSize);
+            released[0] = (int) changes.stream()
+                .filter(change -> change.previous().holdsSeat())
+                .count();
+            if (released[0] > 0) {
+                seatInventoryService.releaseSeats(job.getEventId(), released[0]);
+            }
+            seatInventoryService.adjustWaitlisted(job.getEventId(), (int) -changes.stream()
+                .filter(change -> change.previous() == BookingStatus.WAITLISTED)
+                .count());
+            return advance(job, changes, event, changes.size() == chunkSize);
+        });
+        if (released[0] > 0) {
+            seatInventoryService.release(eventId, released[0]);
+        }
+        return Boolean.TRUE.equals(more);
+    }
+
+    // Only as many bookings as there are free seats move, the rest stay waitlisted and the job completes
+    private boolean confirmChunk(Long jobId, Event event) {
+        int granted = seatInventoryService.reserveUpTo(event.getId(), event.getCapacity(), chunkSize);
+        int[] confirmed = new int[1];
+        Boolean more;
+        try {
+            more = transactionTemplate.execute(status -> {
+                BulkBookingJob job = lockRunning(jobId);
+                if (job == null) {
+                    return false;
+                }
+                if (granted == 0) {
+                    return advance(job, List.of(), event, false);
+                }
+                // Seats are counted before the rows change, a first-time seed would count the moved rows again
+                seatInventoryService.confirmSeats(event.getId(), event.getCapacity(), granted);
+                List<BookingStatusChange> changes = bookingRepository.updateStatusChunk(
+                    job.getEventId(), CONFIRMABLE, BookingStatus.CONFIRMED, job.getLastBookingId(), granted);
+                if (changes.size() < granted) {
+                    seatInventoryService.releaseSeats(event.getId(), granted - changes.size());
+                }
+                seatInventoryService.adjustWaitlisted(event.getId(), -changes.size());
+                confirmed[0] = changes.size();
+                return advance(job, changes, event, changes.size() == granted);
+            });
+        } catch (RuntimeException e) {
+            seatInventoryService.release(event.getId(), granted);
+            throw e;
+        }
+        if (granted > confirmed[0]) {
+            seatInventoryService.release(event.getId(), granted - confirmed[0]);
+        }
+        return Boolean.TRUE.equals(more);
+    }
+
+    // Another instance working on the same job waits here, and then sees the cursor this one left
+    private BulkBookingJob lockRunning(Long jobId) {
+        return jobRepository.findForUpdate(jobId)
+            .filter(job -> job.getStatus() == BulkJobStatus.RUNNING)
+            .orElse(null);
+    }
+
+    private boolean advance(BulkBookingJob job, List<BookingStatusChange> changes, Event event, boolean more) {
+        if (!changes.isEmpty()) {
+            Double price = event == null ? null : event.getPrice();
+            bookingEventProducer.sendBookingEvents(changes.stream()
+                .map(change -> bookingMapper.toBookingEvent(change.booking(), price))
+                .toList());
+            bookingCache.evictAll(changes.stream().map(change -> change.booking().getId()).toList());
+            job.setLastBookingId(changes.get(changes.size() - 1).booking().getId());
+            job.setProcessed(job.getProcessed() + changes.size());
+        }
+        if (!more) {
+            job.setStatus(BulkJobStatus.COMPLETED);
+        }
+        job.setUpdatedAt(Instant.now());
+        return more;
+    }
+
+    private void fail(Long jobId, RuntimeException e) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(BulkJobStatus.FAILED);
+            job.setError(e.getMessage());
+            job.setUpdatedAt(Instant.now());
+        }));
+    }
+
+    // A cancelled event may already be gone from the event service, its messages then go out without a price
+    private Event findEvent(BulkBookingJob job) {
+        try {
+            return eventCache.get(job.getEventId());
+        } catch (ResponseStatusException e) {
+            if (job.getAction() == BulkAction.CANCEL && e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static List<BookingStatus> fromStatuses(BulkAction action) {
+        return action == BulkAction.CANCEL ? CANCELLABLE : CONFIRMABLE;
+    }
+}
@@ -0,0 +1,172 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache in front of the event service: a bounded in-process cache that coalesces concurrent
+ * lookups of the same event, backed by Redis so the instances share one copy.
+ */
+@Service
+public class EventCache {
+
+    private final EventServiceClient eventServiceClient;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<Long, Event> localCache;
+    private final Duration sharedTtl;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    // Bumped by every eviction, a load that started before one must not put what it fetched into Redis
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EventCache(
+        EventServiceClient eventServiceClient,
+        StringRedisTemplate redisTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${event-cache.local.max-size}") long localMaxSize,
+        @Value("${event-cache.local.ttl}") Duration localTtl,
+        @Value("${event-cache.shared.ttl}") Duration sharedTtl
+    ) {
+        this.eventServiceClient = eventServiceClient;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.sharedTtl = sharedTtl;
+        this.localCache = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "event.local");
+        this.sharedHits = Counter.builder("cache.gets").tag("cache", "event.shared").tag("result", "hit")
+            .register(meterRegistry);
+        this.sharedMisses = Counter.builder("cache.gets").tag("cache", "event.shared").tag("result", "miss")
+            .register(meterRegistry);
+    }
+
+    public Event get(Long eventId) {
+        // Callers for one event share a single load, run outside the map lock so a virtual thread never pins
+        CompletableFuture<Event> loading = new CompletableFuture<>();
+        CompletableFuture<Event> cached = localCache.get(eventId, (id, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loadShared(eventId));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Event> getAsync(Long eventId) {
+        CompletableFuture<Event> loading = new CompletableFuture<>();
+        CompletableFuture<Event> cached = localCache.get(eventId, (id, executor) -> loading);
+        if (cached == loading) {
+            loadSharedAsync(eventId).whenComplete((event, error) -> {
+                if (error != null) {
+                    loading.completeExceptionally(error);
+                } else {
+                    loading.complete(event);
+                }
+            });
+        }
+        return cached;
+    }
+
+    public void evict(Long eventId) {
+        evictions.incrementAndGet();
+        localCache.synchronous().invalidate(eventId);
+        redisTemplate.delete(sharedKey(eventId));
+    }
+
+    // Every instance holds its own local copy, so each one reads every partition, without a consumer group
+    @KafkaListener(topicPartitions = @TopicPartition(
+        topic = "${event-service.changes-topic}",
+        partitions = "#{@kafkaPartitions.of('${event-service.changes-topic}')}"
+    ))
+    public void onEventChanged(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        Long eventId = record.key() != null
+            ? Long.valueOf(record.key())
+            : objectMapper.readTree(record.value()).path("id").asLong();
+        evict(eventId);
+    }
+
+    private Event loadShared(Long eventId) {
+        long generation = evictions.get();
+        Event cached = readShared(eventId);
+        return cached != null ? cached : writeShared(eventId, eventServiceClient.fetch(eventId), generation);
+    }
+
+    private CompletableFuture<Event> loadSharedAsync(Long eventId) {
+        long generation = evictions.get();
+        try {
+            Event cached = readShared(eventId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return eventServiceClient.fetchAsync(eventId).thenApply(event -> writeShared(eventId, event, generation));
+    }
+
+    private Event readShared(Long eventId) {
+        String cached = redisTemplate.opsForValue().get(sharedKey(eventId));
+        if (cached != null) {
+            try {
+                Event event = objectMapper.readValue(cached, Event.class);
+                sharedHits.increment();
+                return event;
+            } catch (JsonProcessingException e) {
+                redisTemplate.delete(sharedKey(eventId));
+            }
+        }
+        sharedMisses.increment();
+        return null;
+    }
+
+    // An eviction between the check and the write is caught by the second check, or deletes after the write
+    private Event writeShared(Long eventId, Event event, long generation) {
+        if (evictions.get() != generation) {
+            return event;
+        }
+        try {
+            redisTemplate.opsForValue().set(sharedKey(eventId), objectMapper.writeValueAsString(event), sharedTtl);
+        } catch (JsonProcessingException e) {
+            // Not shareable, the local tier still holds it
+        }
+        if (evictions.get() != generation) {
+            redisTemplate.delete(sharedKey(eventId));
+        }
+        return event;
+    }
+
+    private static String sharedKey(Long eventId) {
+        return "event:cache:" + eventId;
+    }
+}
@@ -0,0 +1,194 @@
+package org.yunusgedik.booking.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingCommand;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single writer per event for creates and holds. Every event belongs to one of a fixed number of writer
+ * threads, a request queues its command there and waits. The writer takes whatever queued up for its
+ * events while it was busy and commits each event's share as one group through
+ * {@link BookingService#createGroup}, so a burst on one event costs one seat reservation, one transaction
+ * and one outbox batch per group instead of per booking. A group that fails is retried one command at a
+ * time, so a single bad command does not fail the others.
+ * <p>
+ * Ownership is per instance. Instances still share the Redis seat counter and the conditional inventory
+ * update, which keep concurrent writers of the same event on different instances correct.
+ */
+@Service
+@Profile("!reactive")
+public class EventCommandProcessor {
+
+    private final BookingService bookingService;
+    private final EventCache eventCache;
+    private final boolean enabled;
+    private final int maxGroupSize;
+    private final Duration waitTimeout;
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public EventCommandProcessor(
+        BookingService bookingService,
+        EventCache eventCache,
+        @Value("${booking.single-writer.enabled}") boolean enabled,
+        @Value("${booking.single-writer.writers}") int writerCount,
+        @Value("${booking.single-writer.queue-capacity}") int queueCapacity,
+        @Value("${booking.single-writer.max-group-size}") int maxGroupSize,
+        @Value("${booking.single-writer.wait-timeout}") Duration waitTimeout
+    ) {
+        this.bookingService = bookingService;
+        this.eventCache = eventCache;
+        this.enabled = enabled;
+        this.maxGroupSize = maxGroupSize;
+        this.waitTimeout = waitTimeout;
+        if (enabled) {
+            for (int i = 0; i < writerCount; i++) {
+                BlockingQueue<Pending> queue = new LinkedBlockingQueue<>(queueCapacity);
+                queues.add(queue);
+                Thread writer = new Thread(() -> drain(queue), "booking-writer-" + i);
+                writer.start();
+                writers.add(writer);
+            }
+        }
+    }
+
+    public Booking create(BookingDTO bookingDTO) {
+        if (!enabled || bookingDTO.eventId() == null) {
+            return bookingService.create(bookingDTO);
+        }
+        return submit(new BookingCommand(bookingDTO, false));
+    }
+
+    public Booking hold(BookingDTO bookingDTO) {
+        if (!enabled || bookingDTO.eventId() == null) {
+            return bookingService.hold(bookingDTO);
+        }
+        return submit(new BookingCommand(bookingDTO, true));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+    }
+
+    private Booking submit(BookingCommand command) {
+        Pending pending = new Pending(command, new CompletableFuture<>(), new AtomicBoolean());
+        BlockingQueue<Pending> queue = queues.get(
+            Math.floorMod(command.booking().eventId().hashCode(), queues.size()));
+        if (!running || !queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many bookings in progress");
+        }
+        try {
+            return pending.result().copy().orTimeout(waitTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw unwrap(e);
+            }
+        }
+        // Still queued, the writer skips a command it could not take, so it is never committed behind our back
+        if (pending.taken().compareAndSet(false, true)) {
+            queue.remove(pending);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many bookings in progress");
+        }
+        // The writer has it, the outcome follows with that group's transaction
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    private void drain(BlockingQueue<Pending> queue) {
+        List<Pending> batch = new ArrayList<>(maxGroupSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxGroupSize - 1);
+            batch.removeIf(pending -> !pending.taken().compareAndSet(false, true));
+
+            // Nothing may end the writer, its events would have no one left to commit them
+            try {
+                Map<Long, List<Pending>> byEvent = new LinkedHashMap<>();
+                batch.forEach(pending -> byEvent
+                    .computeIfAbsent(pending.command().booking().eventId(), id -> new ArrayList<>())
+                    .add(pending));
+                byEvent.forEach(this::commit);
+            } catch (Throwable e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> pending.result().completeExceptionally(
+            new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Shutting down")));
+    }
+
+    private void commit(Long eventId, List<Pending> group) {
+        Event event;
+        try {
+            event = eventCache.get(eventId);
+        } catch (RuntimeException e) {
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        try {
+            complete(group, bookingService.createGroup(event, group.stream().map(Pending::command).toList()));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // The group gave its seats back, each command gets a transaction of its own to find the one at fault
+            for (Pending pending : group) {
+                try {
+                    complete(List.of(pending), bookingService.createGroup(event, List.of(pending.command())));
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private static void complete(List<Pending> group, List<Booking> saved) {
+        for (int i = 0; i < group.size(); i++) {
+            if (saved.get(i) != null) {
+                group.get(i).result().complete(saved.get(i));
+            } else {
+                group.get(i).result().completeExceptionally(new IllegalStateException("Event is full"));
+            }
+        }
+    }
+
+    // A command is taken exactly once, by the writer to commit it or by its caller to give up on it
+    private record Pending(BookingCommand command, CompletableFuture<Booking> result, AtomicBoolean taken) {}
+}
@@ -0,0 +1,133 @@
+package org.yunusgedik.booking.Service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The only way into the event service. Calls are bounded by a bulkhead so a slow event service cannot
+ * take every request thread, and short-circuited while it keeps failing.
+ */
+@Service
+public class EventServiceClient {
+
+    private final RestTemplate restTemplate;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final AsyncTaskExecutor executor;
+    private final Duration callDeadline;
+
+    @Value("${event-service.base-url}")
+    private String eventServiceBaseUrl;
+
+    public EventServiceClient(
+        RestTemplate restTemplate,
+        MeterRegistry meterRegistry,
+        Environment environment,
+        @Value("${event-service.bulkhead.max-concurrent}") int maxConcurrent,
+        @Value("${event-service.bulkhead.max-wait}") Duration maxWait,
+        @Value("${event-service.circuit-breaker.failure-rate-threshold}") float failureRateThreshold,
+        @Value("${event-service.circuit-breaker.open-duration}") Duration openDuration,
+        @Value("${event-service.call-deadline}") Duration callDeadline
+    ) {
+        this.restTemplate = restTemplate;
+        this.callDeadline = callDeadline;
+
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrent)
+            .maxWaitDuration(maxWait)
+            .build());
+        this.bulkhead = bulkheads.bulkhead("event-service");
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(callDeadline)
+            .waitDurationInOpenState(openDuration)
+            // A missing event or our own saturation says nothing about the health of the event service
+            .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker("event-service");
+
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+
+        this.executor = createExecutor(maxConcurrent, Threading.VIRTUAL.isActive(environment));
+    }
+
+    public Event fetch(Long eventId) {
+        try {
+            return circuitBreaker.executeSupplier(() -> bulkhead.executeSupplier(() -> get(eventId)));
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Event service unavailable", e);
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found", e);
+        }
+    }
+
+    public CompletableFuture<Event> fetchAsync(Long eventId) {
+        return CompletableFuture.supplyAsync(() -> fetch(eventId), executor)
+            .orTimeout(callDeadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    private static AsyncTaskExecutor createExecutor(int maxConcurrent, boolean virtualThreads) {
+        if (virtualThreads) {
+            // A thread per call is free here, the bulkhead is what bounds the load on the event service
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("event-service-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("event-service-");
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(maxConcurrent * 4);
+        // Carries the caller's trace onto the worker, so the HTTP call shows up under the request's span
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    private Event get(Long eventId) {
+        String url = eventServiceBaseUrl + "/event/" + eventId;
+        ResponseEntity<Event> response = restTemplate.getForEntity(url, Event.class);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Event not found");
+        }
+        return response.getBody();
+    }
+}
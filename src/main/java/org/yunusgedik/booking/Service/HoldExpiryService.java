@@ -0,0 +1,146 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives the seats of abandoned holds back. Every hold is a member of one Redis sorted set scored by its
+ * expiry, the sweeper takes the due ones in batches and expires them with a single UPDATE. The EXPIRED
+ * messages then drive {@link WaitlistPromoter} like cancellations do. Entries of holds that were confirmed
+ * or cancelled in the meantime are skipped by that UPDATE, so they are never removed one by one.
+ */
+@Service
+public class HoldExpiryService {
+
+    static final String HOLDS_KEY = "booking:holds";
+
+    // Takes the due entries off the set in one step, so concurrent sweepers never work on the same holds
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+        if #due > 0 then
+            redis.call('ZREM', KEYS[1], unpack(due))
+        end
+        return due
+        """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingEventProducer bookingEventProducer;
+    private final BookingCache bookingCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expiredHolds;
+
+    @Value("${booking.hold.sweep-batch-size}")
+    private int batchSize;
+
+    @Value("${booking.hold.backstop-grace}")
+    private Duration backstopGrace;
+
+    public HoldExpiryService(
+        StringRedisTemplate redisTemplate,
+        BookingRepository bookingRepository,
+        BookingMapper bookingMapper,
+        SeatInventoryService seatInventoryService,
+        BookingEventProducer bookingEventProducer,
+        BookingCache bookingCache,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepository = bookingRepository;
+        this.bookingMapper = bookingMapper;
+        this.seatInventoryService = seatInventoryService;
+        this.bookingEventProducer = bookingEventProducer;
+        this.bookingCache = bookingCache;
+        this.transactionTemplate = transactionTemplate;
+        this.expiredHolds = Counter.builder("booking.holds.expired").register(meterRegistry);
+    }
+
+    /**
+     * Registers a committed hold for expiry. A hold that does not make it into the set is still found by
+     * {@link #sweepDatabase()}, only later.
+     */
+    public void schedule(Booking booking) {
+        try {
+            redisTemplate.opsForZSet().add(
+                HOLDS_KEY,
+                booking.getId().toString(),
+                booking.getHoldExpiresAt().toEpochMilli()
+            );
+        } catch (DataAccessException e) {
+            // Left to the backstop sweep
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms}")
+    public void sweep() {
+        List<Long> due;
+        do {
+            due = claimDue();
+            try {
+                expire(due);
+            } catch (RuntimeException e) {
+                // Back in the set, the next run tries again
+                due.forEach(id -> redisTemplate.opsForZSet().add(HOLDS_KEY, id.toString(), Instant.now().toEpochMilli()));
+                throw e;
+            }
+        } while (due.size() == batchSize);
+    }
+
+    // Catches the holds Redis lost, after a flush or a failed schedule
+    @Scheduled(fixedDelayString = "${booking.hold.backstop-interval-ms}")
+    public void sweepDatabase() {
+        List<Long> due;
+        do {
+            due = bookingRepository.findExpiredHoldIds(Instant.now().minus(backstopGrace), batchSize);
+            expire(due);
+        } while (due.size() == batchSize);
+    }
+
+    private List<Long> claimDue() {
+        List<?> claimed = redisTemplate.execute(
+            CLAIM_SCRIPT,
+            List.of(HOLDS_KEY),
+            String.valueOf(Instant.now().toEpochMilli()),
+            String.valueOf(batchSize)
+        );
+        return claimed == null ? List.of() : claimed.stream().map(id -> Long.valueOf(id.toString())).toList();
+    }
+
+    private void expire(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> seatsByEvent = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Booking> expired = bookingRepository.expireHolds(ids, Instant.now());
+            expired.forEach(booking -> seatsByEvent.merge(booking.getEventId(), 1, Integer::sum));
+            seatsByEvent.forEach(seatInventoryService::releaseSeats);
+            // No price, nothing was paid for an expired hold
+            bookingEventProducer.sendBookingEvents(expired.stream()
+                .map(booking -> bookingMapper.toBookingEvent(booking, null))
+                .toList());
+            bookingCache.evictAll(expired.stream().map(Booking::getId).toList());
+        });
+        seatsByEvent.forEach(seatInventoryService::release);
+        expiredHolds.increment(seatsByEvent.values().stream().mapToInt(Integer::intValue).sum());
+    }
+}
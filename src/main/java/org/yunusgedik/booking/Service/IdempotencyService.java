@@ -0,0 +1,236 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Idempotency.IdempotencyRecord;
+import org.yunusgedik.booking.Repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an Idempotency-Key at most once per key. Completed responses are kept in Redis
+ * and Postgres for the configured time and handed back to retries as they are. A retry that arrives while
+ * the first request is still running waits for its response instead of doing the work a second time.
+ * Failed requests are not remembered, so they can be retried with the same key.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String IN_PROGRESS = "P";
+    private static final String DONE = "D";
+
+    private final StringRedisTemplate redisTemplate;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl}")
+    private Duration ttl;
+
+    @Value("${idempotency.lease}")
+    private Duration lease;
+
+    @Value("${idempotency.wait-timeout}")
+    private Duration waitTimeout;
+
+    public IdempotencyService(
+        StringRedisTemplate redisTemplate,
+        IdempotencyRecordRepository idempotencyRecordRepository,
+        ObjectMapper objectMapper
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param key     the client's key, already scoped to the caller and operation, or null to just run
+     * @param request what the key was sent with, reusing a key for a different request is rejected
+     */
+    public <T> T execute(String key, String request, Class<T> responseType, Supplier<T> work) {
+        if (key == null) {
+            return work.get();
+        }
+        String fingerprint = fingerprint(request);
+
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long backoffMillis = 5;
+        while (true) {
+            Stored stored = find(key);
+            if (stored != null) {
+                checkFingerprint(stored, fingerprint);
+            }
+            if (stored != null && stored.response() != null) {
+                return read(stored.response(), responseType);
+            }
+            if (stored == null && claim(key, fingerprint)) {
+                break;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new ResponseStatusException(
+                    HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, 100);
+        }
+
+        T response;
+        try {
+            response = work.get();
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+        complete(key, fingerprint, write(response));
+        return response;
+    }
+
+    /**
+     * The stored response of a completed request with this key, for callers that have to answer a retry
+     * before checks the first request already passed, like admission.
+     */
+    public <T> Optional<T> completed(String key, String request, Class<T> responseType) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Stored stored = find(key);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        checkFingerprint(stored, fingerprint(request));
+        return Optional.ofNullable(stored.response()).map(response -> read(response, responseType));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms}")
+    public void deleteExpired() {
+        idempotencyRecordRepository.deleteExpired(Instant.now());
+    }
+
+    private Stored find(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKey(key));
+            if (value != null) {
+                return Stored.parse(value);
+            }
+        } catch (DataAccessException e) {
+            // Redis is down, Postgres answers alone
+        }
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findLive(key, Instant.now());
+        if (record.isEmpty()) {
+            return null;
+        }
+        Stored stored = new Stored(record.get().getFingerprint(), record.get().getResponse());
+        if (stored.response() != null) {
+            // Redis lost it, put it back for the next retry
+            writeRedis(key, stored, Duration.between(Instant.now(), record.get().getExpiresAt()));
+        }
+        return stored;
+    }
+
+    private boolean claim(String key, String fingerprint) {
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(redisKey(key), new Stored(fingerprint, null).format(), lease);
+            return Boolean.TRUE.equals(claimed);
+        } catch (DataAccessException e) {
+            return idempotencyRecordRepository.claim(key, fingerprint, Instant.now().plus(lease)) == 1;
+        }
+    }
+
+    private void release(String key) {
+        try {
+            redisTemplate.delete(redisKey(key));
+        } catch (DataAccessException e) {
+            // Expires with the lease
+        }
+        idempotencyRecordRepository.release(key);
+    }
+
+    private void complete(String key, String fingerprint, String response) {
+        Stored stored = new Stored(fingerprint, response);
+        idempotencyRecordRepository.complete(key, fingerprint, response, Instant.now().plus(ttl));
+        writeRedis(key, stored, ttl);
+    }
+
+    private void writeRedis(String key, Stored stored, Duration expiresIn) {
+        if (expiresIn.isNegative() || expiresIn.isZero()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), stored.format(), expiresIn);
+        } catch (DataAccessException e) {
+            // Postgres has it
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store the response", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response", e);
+        }
+    }
+
+    private static void checkFingerprint(Stored stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new ResponseStatusException(
+                HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the first request", e);
+        }
+    }
+
+    private static String fingerprint(String request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String redisKey(String key) {
+        return "idempotency:" + key;
+    }
+
+    // Kept in Redis as "P|fingerprint" while running and "D|fingerprint|response" once done
+    private record Stored(String fingerprint, String response) {
+
+        static Stored parse(String value) {
+            String[] parts = value.split("\\|", 3);
+            return new Stored(parts[1], DONE.equals(parts[0]) ? parts[2] : null);
+        }
+
+        String format() {
+            return response == null ? IN_PROGRESS + "|" + fingerprint : DONE + "|" + fingerprint + "|" + response;
+        }
+    }
+}
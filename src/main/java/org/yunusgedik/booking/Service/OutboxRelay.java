@@ -0,0 +1,119 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Outbox.OutboxEvent;
+import org.yunusgedik.booking.Repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to Kafka in id order. A single relay holds the advisory lock at a time so messages of
+ * one booking are never published out of order by two instances. Rows are deleted only after Kafka
+ * acknowledged the whole batch; consumers deduplicate redeliveries by the outbox-id header.
+ */
+@Service
+public class OutboxRelay {
+
+    static final String OUTBOX_ID_HEADER = "outbox-id";
+
+    private static final long RELAY_LOCK_KEY = 0x0b0c_0001L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout}")
+    private Duration sendTimeout;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        KafkaTemplate<String, BookingEvent> kafkaTemplate,
+        TransactionTemplate transactionTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchTimer = Timer.builder("booking.outbox.relay.batch").register(meterRegistry);
+        Gauge.builder("booking.outbox.backlog", backlog, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("booking.outbox.lag", lagMillis, AtomicLong::get).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+        } while (relayed != null && relayed == batchSize);
+
+        backlog.set(outboxEventRepository.count());
+        OutboxEvent oldest = outboxEventRepository.findFirstByOrderByIdAsc();
+        lagMillis.set(oldest == null ? 0 : Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis());
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryAdvisoryLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findBatch(batchSize);
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent row : batch) {
+            ProducerRecord<String, BookingEvent> record =
+                new ProducerRecord<>(row.getTopic(), row.getMessageKey(), readPayload(row));
+            record.headers().add(OUTBOX_ID_HEADER, row.getId().toString().getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing the outbox", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Rolls back, the whole batch is retried on the next run
+            throw new IllegalStateException("Could not publish the outbox batch", e);
+        }
+
+        outboxEventRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+
+    private BookingEvent readPayload(OutboxEvent row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), BookingEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox row " + row.getId(), e);
+        }
+    }
+}
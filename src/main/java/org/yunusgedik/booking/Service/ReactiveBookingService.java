@@ -0,0 +1,306 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingBatchResult;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingPage;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.ReactiveBookingRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link BookingService} for the reactive profile. The flow and the rules are the same: Redis admits the
+ * seat, the booking, its event_inventory count and its outbox row commit in one R2DBC transaction, and
+ * {@link OutboxRelay} publishes the outbox as before, so Kafka is never on the request path.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBookingService {
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveEventCache eventCache;
+    private final ReactiveSeatInventory seatInventory;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final BookingMapper bookingMapper;
+    private final ObjectMapper objectMapper;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    @Value("${booking.batch.max-size}")
+    private Integer batchMaxSize;
+
+    @Value("${booking.page.max-size}")
+    private Integer pageMaxSize;
+
+    @Value("${booking-cache.ttl}")
+    private Duration cacheTtl;
+
+    public ReactiveBookingService(
+        ReactiveBookingRepository bookingRepository,
+        ReactiveEventCache eventCache,
+        ReactiveSeatInventory seatInventory,
+        ReactiveStringRedisTemplate redisTemplate,
+        TransactionalOperator transactionalOperator,
+        BookingMapper bookingMapper,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.eventCache = eventCache;
+        this.seatInventory = seatInventory;
+        this.redisTemplate = redisTemplate;
+        this.transactionalOperator = transactionalOperator;
+        this.bookingMapper = bookingMapper;
+        this.objectMapper = objectMapper;
+        this.cacheHits = Counter.builder("cache.gets").tag("cache", "booking").tag("result", "hit")
+            .register(meterRegistry);
+        this.cacheMisses = Counter.builder("cache.gets").tag("cache", "booking").tag("result", "miss")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The booking, or empty when there is none. Read through the same Redis entries as {@link BookingCache},
+     * for reads only.
+     */
+    public Mono<Booking> find(Long id) {
+        return redisTemplate.opsForValue().get(BookingCache.key(id))
+            .doOnNext(cached -> cacheHits.increment())
+            .map(BookingCache::decode)
+            .switchIfEmpty(Mono.defer(() -> {
+                cacheMisses.increment();
+                return bookingRepository.findById(id).flatMap(booking -> redisTemplate.opsForValue()
+                    .set(BookingCache.key(id), BookingCache.encode(booking), cacheTtl)
+                    .thenReturn(booking));
+            }));
+    }
+
+    /**
+     * The booking as stored, or empty when there is none. Writes start from it, as in BookingService, never
+     * from a cached copy that may predate a committed change.
+     */
+    public Mono<Booking> load(Long id) {
+        return bookingRepository.findById(id);
+    }
+
+    public Mono<BookingPage> getAll(BookingFilter filter, Long afterId, int size) {
+        int limit = Math.min(Math.max(size, 1), pageMaxSize);
+        return bookingRepository.findPage(filter, afterId, limit).collectList().map(items -> new BookingPage(
+            items,
+            items.size() == limit ? items.get(items.size() - 1).getId() : null
+        ));
+    }
+
+    public Flux<Booking> export(BookingFilter filter) {
+        return bookingRepository.streamAll(filter);
+    }
+
+    public Mono<Booking> create(BookingDTO bookingDTO) {
+        return eventCache.get(bookingDTO.eventId())
+            .flatMap(event -> {
+                validateEvent(event);
+                return seatInventory.tryReserve(event.getId(), event.getCapacity())
+                    .flatMap(reserved -> reserved
+                        ? insertReserved(prepareBooking(bookingDTO), event)
+                        : Mono.error(new IllegalStateException("Event is full")));
+            });
+    }
+
+    /**
+     * Creates every item on its own, unlike {@link BookingService#createBatch} which inserts the granted
+     * items in one transaction.
+     */
+    public Mono<List<BookingBatchResult>> createBatch(List<BookingDTO> bookingDTOs) {
+        if (bookingDTOs.size() > batchMaxSize) {
+            return Mono.error(new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Batch exceeds " + batchMaxSize + " bookings"));
+        }
+        return Flux.range(0, bookingDTOs.size())
+            .concatMap(i -> bookingDTOs.get(i).eventId() == null
+                ? Mono.just(BookingBatchResult.failure(i, "Event is required"))
+                : create(bookingDTOs.get(i))
+                    .map(booking -> BookingBatchResult.success(i, booking))
+                    .onErrorResume(e -> Mono.just(BookingBatchResult.failure(i, e.getMessage()))))
+            .collectList();
+    }
+
+    // The row is locked while the changes are applied, a concurrent status change is not overwritten
+    public Mono<Booking> update(Booking booking, BookingDTO bookingDTO) {
+        return bookingRepository.findForUpdate(booking.getId())
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")))
+            .flatMap(locked -> {
+                bookingMapper.update(bookingDTO, locked);
+                return bookingRepository.update(locked);
+            })
+            .as(transactionalOperator::transactional)
+            .flatMap(this::evict);
+    }
+
+    // Only the request that deleted the row gives its seat back
+    public Mono<Booking> delete(Booking booking) {
+        BookingStatus status = booking.getStatus();
+        boolean seatHeld = status.holdsSeat();
+        return bookingRepository.deleteIfStatus(booking.getId(), booking.getEventId(), status)
+            .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(changedConcurrently(status)))
+            .then(seatHeld ? bookingRepository.releaseSeats(booking.getEventId(), 1) : Mono.<Void>empty())
+            .then(bookingRepository.adjustWaitlisted(booking.getEventId(), waitlistedDelta(status, null)))
+            .as(transactionalOperator::transactional)
+            .then(seatHeld ? seatInventory.release(booking.getEventId(), 1) : Mono.<Void>empty())
+            .then(evict(booking));
+    }
+
+    public Mono<Booking> confirm(Booking booking) {
+        return eventCache.get(booking.getEventId()).flatMap(event -> {
+            if (booking.getStatus() == BookingStatus.HELD) {
+                // The seat was taken with the hold, confirming only has to beat the expiry
+                Mono<Void> claim = bookingRepository.confirmHold(booking.getId(), booking.getEventId())
+                    .flatMap(confirmed -> confirmed
+                        ? Mono.<Void>empty()
+                        : Mono.error(changedConcurrently(BookingStatus.HELD)));
+                booking.setStatus(BookingStatus.CONFIRMED);
+                return saveAndPublish(Mono.just(booking), event.getPrice(), claim).flatMap(this::evict);
+            }
+            BookingStatus previous = booking.getStatus();
+            Mono<Boolean> reserve = booking.getStatus() == BookingStatus.CONFIRMED
+                ? Mono.just(false)
+                : seatInventory.tryReserve(event.getId(), event.getCapacity());
+            return reserve.flatMap(reserved -> {
+                if (booking.getStatus() != BookingStatus.CONFIRMED) {
+                    booking.setStatus(reserved ? BookingStatus.CONFIRMED : BookingStatus.WAITLISTED);
+                }
+                Mono<Void> waitlisted = bookingRepository.adjustWaitlisted(
+                    event.getId(), waitlistedDelta(previous, booking.getStatus()));
+                Mono<Booking> write = claimTransition(booking, previous).thenReturn(booking);
+                if (reserved) {
+                    return saveReserved(booking, event, waitlisted.then(write));
+                }
+                Double price = booking.getStatus() == BookingStatus.WAITLISTED ? null : event.getPrice();
+                return saveAndPublish(write, price, waitlisted)
+                    .flatMap(this::evict)
+                    .flatMap(saved -> saved.getStatus() == BookingStatus.WAITLISTED
+                        ? addToWaitlist(saved)
+                        : Mono.just(saved));
+            });
+        });
+    }
+
+    public Mono<Booking> cancel(Booking booking) {
+        BookingStatus previous = booking.getStatus();
+        boolean seatHeld = previous.holdsSeat();
+        return eventCache.get(booking.getEventId()).flatMap(event -> {
+            booking.setStatus(BookingStatus.CANCELLED);
+            // The status moves before the seat does, two cancels of one booking free its seat only once
+            Mono<Void> seats = claimTransition(booking, previous)
+                .then(seatHeld ? bookingRepository.releaseSeats(booking.getEventId(), 1) : Mono.<Void>empty())
+                .then(bookingRepository.adjustWaitlisted(
+                    booking.getEventId(), waitlistedDelta(previous, BookingStatus.CANCELLED)));
+            return saveAndPublish(Mono.just(booking), event.getPrice(), seats)
+                // The freed seat is handed to the waitlist by WaitlistPromoter once the cancellation is published
+                .flatMap(saved -> (seatHeld ? seatInventory.release(saved.getEventId(), 1) : Mono.<Void>empty())
+                    .then(evict(saved)));
+        });
+    }
+
+    // As in BookingService, the status only moves if it is still the one the booking was read with
+    private Mono<Void> claimTransition(Booking booking, BookingStatus previous) {
+        return bookingRepository.transition(booking.getId(), booking.getEventId(), previous, booking.getStatus())
+            .flatMap(moved -> moved ? Mono.<Void>empty() : Mono.error(changedConcurrently(previous)));
+    }
+
+    // Keeps event_inventory.waitlisted in step with the rows, a null target is a deleted booking
+    private static int waitlistedDelta(BookingStatus from, BookingStatus to) {
+        return (to == BookingStatus.WAITLISTED ? 1 : 0) - (from == BookingStatus.WAITLISTED ? 1 : 0);
+    }
+
+    private static ResponseStatusException changedConcurrently(BookingStatus previous) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+            previous == BookingStatus.HELD ? "Hold expired" : "Booking was changed concurrently");
+    }
+
+    private Mono<Booking> insertReserved(Booking booking, Event event) {
+        return saveReserved(booking, event, bookingRepository.insert(booking));
+    }
+
+    // The seat was reserved in Redis, it goes back if the transaction does not commit
+    private Mono<Booking> saveReserved(Booking booking, Event event, Mono<Booking> write) {
+        Mono<Void> seats = confirmSeats(event.getId(), event.getCapacity());
+        return saveAndPublish(write, event.getPrice(), seats)
+            .flatMap(this::evict)
+            .onErrorResume(e -> seatInventory.release(booking.getEventId(), 1).then(Mono.error(e)));
+    }
+
+    // The row, its seat count and its outbox message commit together, as in BookingService
+    private Mono<Booking> saveAndPublish(Mono<Booking> write, Double price, Mono<Void> seatChange) {
+        return seatChange
+            .then(write)
+            .flatMap(saved -> bookingRepository.insertOutbox(
+                BookingEventProducer.TOPIC,
+                String.valueOf(saved.getId()),
+                toPayload(saved, price)
+            ).thenReturn(saved))
+            .as(transactionalOperator::transactional);
+    }
+
+    // Mirrors SeatInventoryService.confirmSeats, seeding the row on the first booking of an event
+    private Mono<Void> confirmSeats(Long eventId, int capacity) {
+        return bookingRepository.tryConfirm(eventId, capacity, 1)
+            .flatMap(confirmed -> confirmed
+                ? Mono.just(true)
+                : bookingRepository.seedInventory(eventId, capacity).then(bookingRepository.tryConfirm(eventId, capacity, 1)))
+            .flatMap(confirmed -> confirmed ? Mono.<Void>empty() : Mono.error(new IllegalStateException("Event is full")));
+    }
+
+    private Mono<Booking> addToWaitlist(Booking booking) {
+        return redisTemplate.execute(
+            WaitlistQueue.ADD_IF_LOADED_SCRIPT,
+            WaitlistQueue.addKeys(booking.getEventId()),
+            List.of(String.valueOf(WaitlistQueue.score(booking)), booking.getId().toString())
+        ).then(Mono.just(booking));
+    }
+
+    private Mono<Booking> evict(Booking booking) {
+        return redisTemplate.delete(BookingCache.key(booking.getId())).thenReturn(booking);
+    }
+
+    private String toPayload(Booking booking, Double price) {
+        try {
+            return objectMapper.writeValueAsString(bookingMapper.toBookingEvent(booking, price));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking event", e);
+        }
+    }
+
+    private static void validateEvent(Event event) {
+        if (!event.isActive()) {
+            throw new IllegalStateException("Event is not active");
+        }
+    }
+
+    private Booking prepareBooking(BookingDTO bookingDTO) {
+        Booking booking = bookingMapper.toBooking(bookingDTO);
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setCreatedAt(Instant.now());
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+}
@@ -0,0 +1,166 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.netty.channel.ChannelOption;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Event.Event;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EventCache} for the reactive profile: the same local and Redis tiers in front of the event service,
+ * reached through WebClient so no thread waits on it.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEventCache {
+
+    private final WebClient webClient;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<Long, Event> localCache;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration callDeadline;
+    private final Duration sharedTtl;
+    // Bumped by every change message, as in EventCache
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReactiveEventCache(
+        WebClient.Builder webClientBuilder,
+        ReactiveStringRedisTemplate redisTemplate,
+        ObjectMapper objectMapper,
+        @Value("${event-service.base-url}") String eventServiceBaseUrl,
+        @Value("${event-service.pool.max-connections}") int maxConnections,
+        @Value("${event-service.pool.acquire-timeout}") Duration acquireTimeout,
+        @Value("${event-service.connect-timeout}") Duration connectTimeout,
+        @Value("${event-service.read-timeout}") Duration readTimeout,
+        @Value("${event-service.call-deadline}") Duration callDeadline,
+        @Value("${event-service.circuit-breaker.failure-rate-threshold}") float failureRateThreshold,
+        @Value("${event-service.circuit-breaker.open-duration}") Duration openDuration,
+        @Value("${event-cache.local.max-size}") long localMaxSize,
+        @Value("${event-cache.local.ttl}") Duration localTtl,
+        @Value("${event-cache.shared.ttl}") Duration sharedTtl
+    ) {
+        ConnectionProvider connections = ConnectionProvider.builder("event-service")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(acquireTimeout)
+            .build();
+        HttpClient httpClient = HttpClient.create(connections)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .responseTimeout(readTimeout);
+        this.webClient = webClientBuilder
+            .baseUrl(eventServiceBaseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+
+        this.circuitBreaker = CircuitBreaker.of("event-service-reactive", CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(callDeadline)
+            .waitDurationInOpenState(openDuration)
+            .ignoreExceptions(WebClientResponseException.NotFound.class)
+            .build());
+
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.callDeadline = callDeadline;
+        this.sharedTtl = sharedTtl;
+        this.localCache = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .buildAsync();
+    }
+
+    public Mono<Event> get(Long eventId) {
+        // Concurrent lookups of one event share a single load
+        return Mono.fromFuture(() -> localCache.get(eventId, (id, executor) -> loadShared(id).toFuture()), true);
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(
+        topic = "${event-service.changes-topic}",
+        partitions = "#{@kafkaPartitions.of('${event-service.changes-topic}')}"
+    ))
+    public void onEventChanged(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        Long eventId = record.key() != null
+            ? Long.valueOf(record.key())
+            : objectMapper.readTree(record.value()).path("id").asLong();
+        evictions.incrementAndGet();
+        localCache.synchronous().invalidate(eventId);
+    }
+
+    private Mono<Event> loadShared(Long eventId) {
+        return Mono.defer(() -> {
+            long generation = evictions.get();
+            return redisTemplate.opsForValue().get(sharedKey(eventId))
+                .flatMap(this::readShared)
+                .switchIfEmpty(Mono.defer(() -> fetch(eventId)
+                    .flatMap(event -> writeShared(eventId, event, generation))));
+        });
+    }
+
+    private Mono<Event> fetch(Long eventId) {
+        return webClient.get().uri("/event/{id}", eventId)
+            .retrieve()
+            .bodyToMono(Event.class)
+            .timeout(callDeadline)
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+            .onErrorMap(WebClientResponseException.NotFound.class,
+                e -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found", e))
+            .onErrorMap(CallNotPermittedException.class,
+                e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Event service unavailable", e))
+            .onErrorMap(TimeoutException.class,
+                e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Event service timed out", e));
+    }
+
+    private Mono<Event> readShared(String cached) {
+        try {
+            return Mono.just(objectMapper.readValue(cached, Event.class));
+        } catch (JsonProcessingException e) {
+            return Mono.empty();
+        }
+    }
+
+    // A change seen while the event was fetched keeps it out of Redis, EventCache deletes the key for it
+    private Mono<Event> writeShared(Long eventId, Event event, long generation) {
+        if (evictions.get() != generation) {
+            return Mono.just(event);
+        }
+        try {
+            return redisTemplate.opsForValue()
+                .set(sharedKey(eventId), objectMapper.writeValueAsString(event), sharedTtl)
+                .then(Mono.defer(() -> evictions.get() != generation
+                    ? redisTemplate.delete(sharedKey(eventId)).then()
+                    : Mono.<Void>empty()))
+                .thenReturn(event);
+        } catch (JsonProcessingException e) {
+            return Mono.just(event);
+        }
+    }
+
+    // Same key as EventCache, both profiles share one copy
+    private static String sharedKey(Long eventId) {
+        return "event:cache:" + eventId;
+    }
+}
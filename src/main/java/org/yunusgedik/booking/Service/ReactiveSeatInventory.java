@@ -0,0 +1,61 @@
+package org.yunusgedik.booking.Service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.yunusgedik.booking.Repository.ReactiveBookingRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The Redis side of {@link SeatInventoryService} for the reactive profile, running the same scripts on the
+ * same keys. Reconciliation keeps running in SeatInventoryService.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSeatInventory {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveBookingRepository bookingRepository;
+
+    public ReactiveSeatInventory(ReactiveStringRedisTemplate redisTemplate, ReactiveBookingRepository bookingRepository) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepository = bookingRepository;
+    }
+
+    public Mono<Boolean> tryReserve(Long eventId, int capacity) {
+        return runReserve(eventId, capacity)
+            .flatMap(granted -> granted == SeatInventoryService.NOT_SEEDED
+                ? seed(eventId, capacity).then(runReserve(eventId, capacity))
+                : Mono.just(granted))
+            .map(granted -> granted == 1);
+    }
+
+    public Mono<Void> release(Long eventId, int seats) {
+        return redisTemplate.execute(
+            SeatInventoryService.RELEASE_SCRIPT,
+            List.of(SeatInventoryService.remainingKey(eventId)),
+            List.of(String.valueOf(seats))
+        ).then();
+    }
+
+    private Mono<Long> runReserve(Long eventId, int capacity) {
+        return redisTemplate.execute(
+            SeatInventoryService.RESERVE_SCRIPT,
+            List.of(SeatInventoryService.remainingKey(eventId), SeatInventoryService.capacityKey(eventId)),
+            List.of("1", String.valueOf(capacity), "0")
+        ).next();
+    }
+
+    private Mono<Void> seed(Long eventId, int capacity) {
+        return redisTemplate.opsForValue().setIfAbsent(SeatInventoryService.capacityKey(eventId), String.valueOf(capacity))
+            .then(bookingRepository.confirmedSeats(eventId))
+            .flatMap(confirmed -> redisTemplate.opsForValue().setIfAbsent(
+                SeatInventoryService.remainingKey(eventId),
+                String.valueOf(Math.max(capacity - confirmed, 0))
+            ))
+            .then(redisTemplate.opsForSet().add(SeatInventoryService.EVENTS_KEY, eventId.toString()))
+            .then();
+    }
+}
@@ -0,0 +1,244 @@
+package org.yunusgedik.booking.Service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Repository.EventInventoryRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remaining capacity per event, kept in Redis so a seat can be reserved with a single atomic script call.
+ * Postgres stays the source of truth: its event_inventory row is moved in the booking transaction by
+ * {@link #confirmSeats} and {@link #releaseSeats}, the Redis counters are seeded from it lazily and
+ * corrected by {@link #reconcile()}.
+ */
+@Service
+public class SeatInventoryService {
+
+    static final String EVENTS_KEY = "inventory:events";
+
+    static final long NOT_SEEDED = -2;
+
+    private static final List<BookingStatus> SEAT_TAKING = List.of(BookingStatus.CONFIRMED, BookingStatus.HELD);
+
+    // Returns the seats granted, 0 when there are not enough, -2 when the event is not seeded yet
+    static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+        local remaining = redis.call('GET', KEYS[1])
+        if not remaining then
+            return -2
+        end
+        remaining = tonumber(remaining)
+        local capacity = tonumber(ARGV[2])
+        local known = tonumber(redis.call('GET', KEYS[2]) or capacity)
+        if known ~= capacity then
+            remaining = remaining + capacity - known
+            redis.call('SET', KEYS[1], remaining)
+            redis.call('SET', KEYS[2], capacity)
+        end
+        local seats = tonumber(ARGV[1])
+        if remaining < seats then
+            if ARGV[3] ~= '1' or remaining <= 0 then
+                return 0
+            end
+            seats = remaining
+        end
+        redis.call('DECRBY', KEYS[1], seats)
+        return seats
+        """, Long.class);
+
+    // Never creates the counter, otherwise a release could seed it with a wrong base
+    static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+            return redis.call('INCRBY', KEYS[1], ARGV[1])
+        end
+        return -2
+        """, Long.class);
+
+    // Overwrites the counter only if nothing touched it since the snapshot, see reconcile()
+    private static final DefaultRedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            redis.call('SET', KEYS[1], ARGV[2])
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingRepository bookingRepository;
+    private final EventInventoryRepository eventInventoryRepository;
+    // Seats Redis was short of Postgres at the last run, per event, see reconcile()
+    private final Map<Long, Long> shortfalls = new ConcurrentHashMap<>();
+
+    public SeatInventoryService(
+        StringRedisTemplate redisTemplate,
+        BookingRepository bookingRepository,
+        EventInventoryRepository eventInventoryRepository
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepository = bookingRepository;
+        this.eventInventoryRepository = eventInventoryRepository;
+    }
+
+    public boolean tryReserve(Long eventId, int capacity) {
+        return tryReserve(eventId, capacity, 1);
+    }
+
+    public boolean tryReserve(Long eventId, int capacity, int seats) {
+        return reserve(eventId, capacity, seats, false) == seats;
+    }
+
+    /**
+     * Reserves as many of the requested seats as are left and returns how many were granted.
+     */
+    public int reserveUpTo(Long eventId, int capacity, int seats) {
+        return reserve(eventId, capacity, seats, true);
+    }
+
+    /**
+     * Seats left in Redis for the event, null while it has not been seeded. A changed capacity is applied the
+     * way the next reservation would.
+     */
+    public Long remaining(Long eventId, int capacity) {
+        List<String> counters = redisTemplate.opsForValue()
+            .multiGet(List.of(remainingKey(eventId), capacityKey(eventId)));
+        if (counters == null || counters.get(0) == null) {
+            return null;
+        }
+        long known = counters.get(1) == null ? capacity : Long.parseLong(counters.get(1));
+        return Long.parseLong(counters.get(0)) + capacity - known;
+    }
+
+    public void release(Long eventId, int seats) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(remainingKey(eventId)), String.valueOf(seats));
+    }
+
+    /**
+     * Counts seats reserved in Redis as confirmed in Postgres, in the caller's transaction. Must run before
+     * the bookings are changed so a first-time seed does not count them already. This is the final word
+     * when Redis has drifted, the transaction fails with "Event is full" if the seats do not fit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void confirmSeats(Long eventId, int capacity, int seats) {
+        if (seats == 0 || eventInventoryRepository.tryConfirm(eventId, capacity, seats) == 1) {
+            return;
+        }
+        eventInventoryRepository.seed(eventId, capacity);
+        if (eventInventoryRepository.tryConfirm(eventId, capacity, seats) == 0) {
+            throw new IllegalStateException("Event is full");
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseSeats(Long eventId, int seats) {
+        eventInventoryRepository.release(eventId, seats);
+    }
+
+    /**
+     * Moves the event's waitlisted count in the caller's transaction, by the bookings that entered (positive)
+     * or left (negative) the waitlist.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustWaitlisted(Long eventId, int delta) {
+        if (delta != 0) {
+            eventInventoryRepository.adjustWaitlisted(eventId, delta);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Counters that survived a Redis or service restart may have drifted while nobody was correcting them
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconcile-interval-ms}")
+    public void reconcile() {
+        Set<String> eventIds = redisTemplate.opsForSet().members(EVENTS_KEY);
+        if (eventIds == null) {
+            return;
+        }
+        for (String id : eventIds) {
+            Long eventId = Long.valueOf(id);
+            String snapshot = redisTemplate.opsForValue().get(remainingKey(eventId));
+            String capacity = redisTemplate.opsForValue().get(capacityKey(eventId));
+            if (snapshot == null || capacity == null) {
+                // Evicted or flushed, the next reservation seeds it again from Postgres
+                redisTemplate.opsForSet().remove(EVENTS_KEY, id);
+                continue;
+            }
+            long drift = remainingFromDatabase(eventId, Integer.parseInt(capacity)) - Long.parseLong(snapshot);
+            long correction = correction(eventId, drift);
+            if (correction != 0) {
+                redisTemplate.execute(RECONCILE_SCRIPT, List.of(remainingKey(eventId)),
+                    snapshot, String.valueOf(Long.parseLong(snapshot) + correction));
+            }
+        }
+    }
+
+    // Surplus seats are taken back at once, missing ones only when two runs agree they are missing
+    private long correction(Long eventId, long drift) {
+        if (drift <= 0) {
+            shortfalls.remove(eventId);
+            return drift;
+        }
+        Long previous = shortfalls.put(eventId, drift);
+        if (previous == null) {
+            return 0;
+        }
+        shortfalls.remove(eventId);
+        return Math.min(previous, drift);
+    }
+
+    private int reserve(Long eventId, int capacity, int seats, boolean partial) {
+        Long granted = runReserve(eventId, capacity, seats, partial);
+        if (granted == NOT_SEEDED) {
+            seed(eventId, capacity);
+            granted = runReserve(eventId, capacity, seats, partial);
+        }
+        return granted.intValue();
+    }
+
+    private Long runReserve(Long eventId, int capacity, int seats, boolean partial) {
+        return redisTemplate.execute(
+            RESERVE_SCRIPT,
+            List.of(remainingKey(eventId), capacityKey(eventId)),
+            String.valueOf(seats),
+            String.valueOf(capacity),
+            partial ? "1" : "0"
+        );
+    }
+
+    private void seed(Long eventId, int capacity) {
+        redisTemplate.opsForValue().setIfAbsent(capacityKey(eventId), String.valueOf(capacity));
+        redisTemplate.opsForValue().setIfAbsent(
+            remainingKey(eventId),
+            String.valueOf(remainingFromDatabase(eventId, capacity))
+        );
+        redisTemplate.opsForSet().add(EVENTS_KEY, eventId.toString());
+    }
+
+    private int remainingFromDatabase(Long eventId, int capacity) {
+        int confirmed = eventInventoryRepository.findConfirmed(eventId)
+            .orElseGet(() -> bookingRepository.countByEventIdAndStatusIn(eventId, SEAT_TAKING));
+        return Math.max(capacity - confirmed, 0);
+    }
+
+    // Hash tags keep every key of an event in one cluster slot, AdmissionService's keys included
+    static String remainingKey(Long eventId) {
+        return "inventory:{" + eventId + "}:remaining";
+    }
+
+    static String capacityKey(Long eventId) {
+        return "inventory:{" + eventId + "}:capacity";
+    }
+}
@@ -0,0 +1,134 @@
+package org.yunusgedik.booking.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.yunusgedik.booking.Lock.LockHandle;
+import org.yunusgedik.booking.Lock.LockManager;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.util.List;
+
+/**
+ * Fills freed seats from the waitlist off the request path. Cancellations and expired holds arrive as
+ * booking events, every run promotes as many waitlisted bookings as there are free seats, in batches. Failed
+ * runs are retried by the listener's error handler; promoting twice is harmless because only still
+ * waitlisted bookings move.
+ */
+@Service
+public class WaitlistPromoter {
+
+    private final BookingService bookingService;
+    private final WaitlistQueue waitlistQueue;
+    private final SeatInventoryService seatInventoryService;
+    private final EventCache eventCache;
+    private final LockManager lockManager;
+    private final BookingMetrics bookingMetrics;
+
+    @Value("${waitlist.batch-size}")
+    private int batchSize;
+
+    public WaitlistPromoter(
+        BookingService bookingService,
+        WaitlistQueue waitlistQueue,
+        SeatInventoryService seatInventoryService,
+        EventCache eventCache,
+        LockManager lockManager,
+        BookingMetrics bookingMetrics
+    ) {
+        this.bookingService = bookingService;
+        this.waitlistQueue = waitlistQueue;
+        this.seatInventoryService = seatInventoryService;
+        this.eventCache = eventCache;
+        this.lockManager = lockManager;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    @KafkaListener(
+        topics = BookingEventProducer.TOPIC,
+        groupId = "booking-waitlist",
+        containerFactory = "bookingEventListenerFactory",
+        concurrency = "${waitlist.consumer.concurrency}"
+    )
+    public void onBookingEvent(BookingEvent bookingEvent) {
+        if (bookingEvent != null && (bookingEvent.getStatus() == BookingStatus.CANCELLED
+            || bookingEvent.getStatus() == BookingStatus.EXPIRED)) {
+            promote(bookingEvent.getEventId());
+        }
+    }
+
+    public int promote(Long eventId) {
+        // A bulk cancellation frees every seat of the event, there is nobody left to promote into them
+        if (waitlistQueue.isClosed(eventId)) {
+            return 0;
+        }
+        Event event = eventCache.get(eventId);
+        if (!event.isActive()) {
+            return 0;
+        }
+        int promotedTotal = 0;
+
+        // Serializes promoters of one event so a batch is pushed back before the next one pops
+        try (LockHandle lock = acquireLock("promote:event:" + eventId)) {
+            while (true) {
+                // Candidates first, seats are only taken out of Redis for bookings that are there to fill them
+                Long free = seatInventoryService.remaining(eventId, event.getCapacity());
+                int wanted = free == null ? batchSize : (int) Math.min(free, batchSize);
+                if (wanted <= 0) {
+                    break;
+                }
+                List<TypedTuple<String>> candidates = waitlistQueue.pop(eventId, wanted);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                int granted = seatInventoryService.reserveUpTo(eventId, event.getCapacity(), candidates.size());
+                if (granted < candidates.size()) {
+                    waitlistQueue.pushBack(eventId, candidates.subList(granted, candidates.size()));
+                    candidates = candidates.subList(0, granted);
+                }
+                if (granted == 0) {
+                    break;
+                }
+
+                int promoted;
+                try {
+                    if (!lock.isValid()) {
+                        bookingMetrics.fencingAborted();
+                        throw new IllegalStateException("Lock lost before promotion, aborting");
+                    }
+                    promoted = bookingService.confirmWaitlisted(
+                        candidates.stream().map(entry -> Long.valueOf(entry.getValue())).toList(),
+                        event
+                    );
+                } catch (RuntimeException e) {
+                    seatInventoryService.release(eventId, granted);
+                    waitlistQueue.pushBack(eventId, candidates);
+                    throw e;
+                }
+
+                if (promoted < granted) {
+                    seatInventoryService.release(eventId, granted - promoted);
+                }
+                promotedTotal += promoted;
+                if (candidates.size() < wanted) {
+                    break;
+                }
+            }
+        }
+        return promotedTotal;
+    }
+
+    private LockHandle acquireLock(String name) {
+        return bookingMetrics.stage("lock", () -> {
+            try {
+                return lockManager.acquire(name);
+            } catch (IllegalStateException e) {
+                bookingMetrics.lockUnavailable();
+                throw e;
+            }
+        });
+    }
+}
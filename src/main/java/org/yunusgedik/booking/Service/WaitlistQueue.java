@@ -0,0 +1,135 @@
+package org.yunusgedik.booking.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Waitlisted bookings of an event in booking time order, as a Redis sorted set. Postgres stays the source
+ * of truth: an empty queue is refilled from it, and a popped booking is only promoted if it is still
+ * waitlisted there. A refill loads at most refill-size bookings and remembers the score it got up to, newer
+ * bookings stay in Postgres until a later refill reaches them.
+ */
+@Service
+public class WaitlistQueue {
+
+    private static final String LOADED_ALL = "all";
+
+    // A booking only joins a loaded queue, otherwise it would jump older rows still in Postgres
+    static final DefaultRedisScript<Long> ADD_IF_LOADED_SCRIPT = new DefaultRedisScript<>("""
+        local loaded = redis.call('GET', KEYS[2])
+        if loaded ~= 'all' and (not loaded or redis.call('EXISTS', KEYS[1]) == 0
+            or tonumber(ARGV[1]) > tonumber(loaded)) then
+            return 0
+        end
+        return redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingRepository bookingRepository;
+
+    @Value("${waitlist.refill-size}")
+    private int refillSize;
+
+    @Value("${waitlist.closed-ttl}")
+    private Duration closedTtl;
+
+    @Value("${waitlist.loaded-ttl}")
+    private Duration loadedTtl;
+
+    public WaitlistQueue(StringRedisTemplate redisTemplate, BookingRepository bookingRepository) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepository = bookingRepository;
+    }
+
+    public void add(Booking booking) {
+        redisTemplate.execute(
+            ADD_IF_LOADED_SCRIPT,
+            addKeys(booking.getEventId()),
+            String.valueOf(score(booking)),
+            booking.getId().toString()
+        );
+    }
+
+    public List<TypedTuple<String>> pop(Long eventId, int count) {
+        String key = queueKey(eventId);
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))
+            && !LOADED_ALL.equals(redisTemplate.opsForValue().get(loadedKey(eventId)))) {
+            refill(eventId);
+        }
+        Set<TypedTuple<String>> popped = redisTemplate.opsForZSet().popMin(key, count);
+        return popped == null ? List.of() : List.copyOf(popped);
+    }
+
+    public void pushBack(Long eventId, List<TypedTuple<String>> entries) {
+        if (!entries.isEmpty()) {
+            redisTemplate.opsForZSet().add(queueKey(eventId), Set.copyOf(entries));
+        }
+    }
+
+    /**
+     * Stops promotion for an event whose bookings are all being cancelled. The queue is dropped and, because
+     * an absent queue would be refilled from Postgres, a marker keeps it from coming back.
+     */
+    public void close(Long eventId) {
+        redisTemplate.opsForValue().set(closedKey(eventId), "1", closedTtl);
+        redisTemplate.delete(List.of(queueKey(eventId), loadedKey(eventId)));
+    }
+
+    public boolean isClosed(Long eventId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(closedKey(eventId)));
+    }
+
+    private void refill(Long eventId) {
+        List<Booking> waitlisted = bookingRepository.findByEventIdAndStatusOrderByBookingTimeAsc(
+            eventId,
+            BookingStatus.WAITLISTED,
+            Limit.of(refillSize)
+        );
+        // The mark goes first, an empty waitlist is marked too so pops stop querying it until it expires
+        if (waitlisted.size() < refillSize) {
+            redisTemplate.opsForValue().set(loadedKey(eventId), LOADED_ALL, loadedTtl);
+        } else {
+            redisTemplate.opsForValue().set(loadedKey(eventId),
+                String.valueOf(score(waitlisted.get(waitlisted.size() - 1))));
+        }
+        if (waitlisted.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(queueKey(eventId), waitlisted.stream()
+            .map(booking -> TypedTuple.of(booking.getId().toString(), score(booking)))
+            .collect(Collectors.toSet()));
+    }
+
+    static double score(Booking booking) {
+        return booking.getBookingTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static String queueKey(Long eventId) {
+        return "waitlist:{" + eventId + "}";
+    }
+
+    static List<String> addKeys(Long eventId) {
+        return List.of(queueKey(eventId), loadedKey(eventId));
+    }
+
+    static String loadedKey(Long eventId) {
+        return "waitlist:{" + eventId + "}:loaded";
+    }
+
+    static String closedKey(Long eventId) {
+        return "waitlist:{" + eventId + "}:closed";
+    }
+}
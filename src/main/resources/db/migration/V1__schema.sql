@@ -0,0 +1,39 @@
+-- Pooled sequences, the increments must match the allocationSize of the entities
+CREATE SEQUENCE booking_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE booking_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE booking (
+    id           BIGINT PRIMARY KEY,
+    user_id      BIGINT,
+    event_id     BIGINT,
+    status       VARCHAR(32),
+    booking_time TIMESTAMP(6),
+    created_at   TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Each filter of the listing is paired with id so keyset pages are index range scans
+CREATE INDEX idx_booking_event_id ON booking (event_id, id);
+CREATE INDEX idx_booking_user_id ON booking (user_id, id);
+CREATE INDEX idx_booking_status_id ON booking (status, id);
+CREATE INDEX idx_booking_time_id ON booking (booking_time, id);
+
+-- Waitlist refills read an event's bookings of one status in booking order
+CREATE INDEX idx_booking_event_status_time ON booking (event_id, status, booking_time);
+
+-- Seeding and reconciling count the confirmed seats of an event, most rows of a busy event are not confirmed
+CREATE INDEX idx_booking_confirmed ON booking (event_id) WHERE status = 'CONFIRMED';
+
+CREATE TABLE booking_outbox (
+    id          BIGINT PRIMARY KEY,
+    topic       VARCHAR(255),
+    message_key VARCHAR(255),
+    payload     TEXT,
+    created_at  TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Confirmed seats per event, changed in the same transaction as the bookings so it never drifts from them
+CREATE TABLE event_inventory (
+    event_id  BIGINT PRIMARY KEY,
+    capacity  INTEGER NOT NULL,
+    confirmed INTEGER NOT NULL DEFAULT 0 CHECK (confirmed >= 0)
+);
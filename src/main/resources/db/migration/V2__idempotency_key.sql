@@ -0,0 +1,10 @@
+-- Responses of requests sent with an Idempotency-Key, a row without a response is a request in flight.
+-- Redis answers replays first, this table keeps them across a Redis restart and stands in while it is down.
+CREATE TABLE idempotency_key (
+    request_key VARCHAR(255) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    response    TEXT,
+    expires_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key (expires_at);
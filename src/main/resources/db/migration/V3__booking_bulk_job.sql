@@ -0,0 +1,20 @@
+CREATE SEQUENCE booking_bulk_job_seq START WITH 1 INCREMENT BY 1;
+
+-- Cancels or confirms every booking of an event in chunks. The cursor moves in the same transaction as each
+-- chunk, so a job that stopped halfway continues exactly where it left off.
+CREATE TABLE booking_bulk_job (
+    id              BIGINT PRIMARY KEY,
+    event_id        BIGINT NOT NULL,
+    action          VARCHAR(16) NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    last_booking_id BIGINT NOT NULL DEFAULT 0,
+    processed       INTEGER NOT NULL DEFAULT 0,
+    total           INTEGER NOT NULL,
+    error           TEXT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- At most one job works on an event at a time
+CREATE UNIQUE INDEX uq_booking_bulk_job_running ON booking_bulk_job (event_id) WHERE status = 'RUNNING';
+CREATE INDEX idx_booking_bulk_job_status ON booking_bulk_job (status, updated_at);
@@ -0,0 +1,9 @@
+-- A HELD booking keeps its seat until it is confirmed or the hold runs out
+ALTER TABLE booking ADD COLUMN hold_expires_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- Backstop sweep for holds whose Redis expiry entry was lost
+CREATE INDEX idx_booking_hold_expiry ON booking (hold_expires_at) WHERE status = 'HELD';
+
+-- event_inventory.confirmed now counts held seats as well, seeding counts both
+DROP INDEX idx_booking_confirmed;
+CREATE INDEX idx_booking_seat_taken ON booking (event_id) WHERE status IN ('CONFIRMED', 'HELD');
@@ -0,0 +1,7 @@
+-- Waitlisted bookings per event, moved in the same transactions as the bookings like confirmed. Together
+-- they answer availability reads without counting booking rows.
+ALTER TABLE event_inventory ADD COLUMN waitlisted INTEGER NOT NULL DEFAULT 0 CHECK (waitlisted >= 0);
+
+UPDATE event_inventory i SET waitlisted = (
+    SELECT count(*) FROM booking b WHERE b.event_id = i.event_id AND b.status = 'WAITLISTED'
+);
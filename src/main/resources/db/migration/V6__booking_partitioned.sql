@@ -0,0 +1,91 @@
+-- Bookings are partitioned without copying them. The existing table is attached as it is, as the partition
+-- of the ids handed out before this migration; bookings created after it go to a partition that is hash
+-- partitioned by event:
+--
+--   booking                 PARTITION BY RANGE (id)
+--     booking_legacy        ids below the cutoff, the table as it was
+--     booking_current       ids from the cutoff on, PARTITION BY HASH (event_id)
+--       booking_p0..p15
+--
+-- Everything done to one event's new bookings, seeding, waitlist refills, bulk jobs and the per-booking
+-- updates that name the event, touches booking_legacy and a single hash partition, whose indexes are a
+-- sixteenth of the table's. Lookups by id prune to one side of the cutoff.
+--
+-- Rollout: the script runs outside a transaction (see the .conf next to it), so it can run while the
+-- previous version serves traffic. Scans happen in CREATE INDEX CONCURRENTLY and VALIDATE CONSTRAINT, which
+-- do not block reads or writes; every other step only changes the catalog and holds its lock briefly.
+-- Instances still on the previous version keep working, they address booking by name and their inserts are
+-- routed by id. If a step fails, the ones before it stay applied: drop an invalid index left by a failed
+-- concurrent build, finish the remaining steps by hand and mark the migration done with flyway repair.
+
+-- The parent's primary key has to contain both partition keys, the old table gets the matching index first
+CREATE UNIQUE INDEX CONCURRENTLY booking_id_event_id_idx ON booking (id, event_id);
+
+-- event_id is part of that key. A validated check lets SET NOT NULL skip its scan under the exclusive lock.
+ALTER TABLE booking ADD CONSTRAINT booking_event_id_not_null CHECK (event_id IS NOT NULL) NOT VALID;
+ALTER TABLE booking VALIDATE CONSTRAINT booking_event_id_not_null;
+ALTER TABLE booking ALTER COLUMN event_id SET NOT NULL;
+ALTER TABLE booking DROP CONSTRAINT booking_event_id_not_null;
+
+-- Same for the partition bound, so attaching does not scan either. Running instances still insert ids from
+-- the blocks of booking_seq they hold, the margin keeps those below the cutoff until the table is attached.
+DO $$
+DECLARE
+    cutoff BIGINT := (SELECT last_value FROM booking_seq) + 1000000;
+BEGIN
+    PERFORM set_config('booking.partition_cutoff', cutoff::text, false);
+    EXECUTE format('ALTER TABLE booking ADD CONSTRAINT booking_legacy_range CHECK (id < %s) NOT VALID', cutoff);
+END
+$$;
+ALTER TABLE booking VALIDATE CONSTRAINT booking_legacy_range;
+
+-- The switch, one short transaction: rename, create the empty parent, attach the old table by catalog change
+DO $$
+DECLARE
+    cutoff BIGINT := current_setting('booking.partition_cutoff')::BIGINT;
+    legacy_index TEXT;
+BEGIN
+    ALTER TABLE booking RENAME TO booking_legacy;
+    ALTER TABLE booking_legacy RENAME CONSTRAINT booking_pkey TO booking_legacy_pkey;
+    FOR legacy_index IN
+        SELECT indexname FROM pg_indexes WHERE tablename = 'booking_legacy' AND indexname LIKE 'idx_booking%'
+    LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', legacy_index, legacy_index || '_legacy');
+    END LOOP;
+
+    CREATE TABLE booking (
+        id              BIGINT NOT NULL,
+        user_id         BIGINT,
+        event_id        BIGINT NOT NULL,
+        status          VARCHAR(32),
+        booking_time    TIMESTAMP(6),
+        created_at      TIMESTAMP(6) WITH TIME ZONE,
+        hold_expires_at TIMESTAMP(6) WITH TIME ZONE,
+        PRIMARY KEY (id, event_id)
+    ) PARTITION BY RANGE (id);
+
+    EXECUTE format(
+        'CREATE TABLE booking_current PARTITION OF booking FOR VALUES FROM (%s) TO (MAXVALUE) '
+            || 'PARTITION BY HASH (event_id)', cutoff);
+    FOR i IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE booking_p%s PARTITION OF booking_current FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+
+    -- Same indexes as before, on the parent. The old table's matching indexes are attached, not rebuilt.
+    CREATE INDEX idx_booking_event_id ON booking (event_id, id);
+    CREATE INDEX idx_booking_user_id ON booking (user_id, id);
+    CREATE INDEX idx_booking_status_id ON booking (status, id);
+    CREATE INDEX idx_booking_time_id ON booking (booking_time, id);
+    CREATE INDEX idx_booking_event_status_time ON booking (event_id, status, booking_time);
+    CREATE INDEX idx_booking_hold_expiry ON booking (hold_expires_at) WHERE status = 'HELD';
+    CREATE INDEX idx_booking_seat_taken ON booking (event_id) WHERE status IN ('CONFIRMED', 'HELD');
+
+    EXECUTE format(
+        'ALTER TABLE booking ATTACH PARTITION booking_legacy FOR VALUES FROM (MINVALUE) TO (%s)', cutoff);
+    ALTER TABLE booking_legacy DROP CONSTRAINT booking_legacy_range;
+
+    -- New ids start at the cutoff, blocks handed out before keep landing in booking_legacy
+    PERFORM setval('booking_seq', cutoff);
+END
+$$;
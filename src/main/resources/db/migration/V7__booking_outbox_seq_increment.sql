@@ -0,0 +1,3 @@
+-- Outbox ids are handed out one at a time, a block cached by one instance would let a later commit of a
+-- booking take a lower id than an earlier one made on another instance, and be published first.
+ALTER SEQUENCE booking_outbox_seq INCREMENT BY 1;
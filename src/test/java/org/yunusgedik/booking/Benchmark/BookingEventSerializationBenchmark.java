@@ -0,0 +1,140 @@
+package org.yunusgedik.booking.Benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.SimpleRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.yunusgedik.booking.Helper.BookingEventDeserializer;
+import org.yunusgedik.booking.Helper.BookingEventSerializer;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a booking event on its way to Kafka: written to the outbox as JSON inside the booking transaction,
+ * then read back and serialized again by the relay, and read by every consumer. JSON is the format the topic
+ * used before Avro. Setup prints bytes per message and the size of a relay batch as the broker stores it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingEventSerializationBenchmark {
+
+    private static final String TOPIC = "booking-events";
+    private static final int RELAY_BATCH = 500;
+
+    private ObjectMapper objectMapper;
+    private JsonSerializer<BookingEvent> jsonSerializer;
+    private JsonDeserializer<BookingEvent> jsonDeserializer;
+    private BookingEventSerializer avroSerializer;
+    private BookingEventDeserializer avroDeserializer;
+    private BookingEvent event;
+    private String payload;
+    private byte[] jsonRecord;
+    private byte[] avroRecord;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same setup as the mapper Spring Boot provides
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        jsonSerializer = new JsonSerializer<>(objectMapper);
+        jsonSerializer.setAddTypeInfo(false);
+        jsonDeserializer = new JsonDeserializer<>(BookingEvent.class, objectMapper, false);
+        avroSerializer = new BookingEventSerializer();
+        avroDeserializer = new BookingEventDeserializer(objectMapper);
+
+        event = new BookingEvent(1L, 42L, 7L, BookingStatus.CONFIRMED, 99.5, LocalDateTime.now());
+        payload = objectMapper.writeValueAsString(event);
+        jsonRecord = jsonSerializer.serialize(TOPIC, event);
+        avroRecord = avroSerializer.serialize(TOPIC, event);
+
+        System.out.printf("bytes/message: json=%d avro=%d%n", jsonRecord.length, avroRecord.length);
+        for (String compression : new String[]{"none", "lz4", "zstd"}) {
+            System.out.printf("relay batch of %d, %s: json=%d avro=%d bytes%n",
+                RELAY_BATCH, compression, batchSize(jsonSerializer, compression), batchSize(avroSerializer, compression));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public String outboxWrite() throws Exception {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public byte[] relayJson() throws Exception {
+        return jsonSerializer.serialize(TOPIC, objectMapper.readValue(payload, BookingEvent.class));
+    }
+
+    @Benchmark
+    public byte[] relayAvro() throws Exception {
+        return avroSerializer.serialize(TOPIC, objectMapper.readValue(payload, BookingEvent.class));
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] serializeAvro() {
+        return avroSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BookingEvent consumeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonRecord);
+    }
+
+    @Benchmark
+    public BookingEvent consumeAvro() {
+        return avroDeserializer.deserialize(TOPIC, avroRecord);
+    }
+
+    // Distinct bookings of a few events, keyed by booking id like the relay does
+    private static int batchSize(Serializer<BookingEvent> serializer, String compression) {
+        SimpleRecord[] records = new SimpleRecord[RELAY_BATCH];
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < RELAY_BATCH; i++) {
+            BookingEvent event = new BookingEvent(
+                100_000L + i,
+                (long) (i * 7919 % 10_000),
+                (long) (i % 5),
+                i % 10 == 0 ? BookingStatus.CANCELLED : BookingStatus.CONFIRMED,
+                49.5 + i % 5 * 25,
+                start.plusNanos(i * 1_234_567L)
+            );
+            records[i] = new SimpleRecord(
+                String.valueOf(event.getBookingId()).getBytes(StandardCharsets.UTF_8),
+                serializer.serialize(TOPIC, event)
+            );
+        }
+        Map<String, Compression> codecs = Map.of(
+            "none", Compression.NONE,
+            "lz4", Compression.lz4().build(),
+            "zstd", Compression.zstd().build()
+        );
+        return MemoryRecords.withRecords(codecs.get(compression), records).sizeInBytes();
+    }
+}
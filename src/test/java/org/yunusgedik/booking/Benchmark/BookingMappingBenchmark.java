@@ -0,0 +1,107 @@
+package org.yunusgedik.booking.Benchmark;
+
+import org.modelmapper.Conditions;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.config.Configuration.AccessLevel;
+import org.openjdk.jmh.annotations.*;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Helper.BookingMapperImpl;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingEvent;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO to entity mapping as done on every create and update: the reflective ModelMapper the service used to
+ * have, configured as it was, against the generated {@link BookingMapper}. Run with -prof gc for allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookingMapper bookingMapper;
+    private BookingDTO createRequest;
+    private BookingDTO updateRequest;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+            .setPropertyCondition(Conditions.isNotNull())
+            .setFieldAccessLevel(AccessLevel.PRIVATE)
+            .setPreferNestedProperties(false)
+            .setFieldMatchingEnabled(true);
+        bookingMapper = new BookingMapperImpl();
+
+        createRequest = new BookingDTO(null, 42L, 7L, null, null);
+        updateRequest = new BookingDTO(null, null, null, BookingStatus.CANCELLED, LocalDateTime.now());
+        booking = bookingMapper.toBooking(createRequest);
+        booking.setId(1L);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        // Type maps are built on first use, keep that out of the measurement
+        modelMapper.map(createRequest, Booking.class);
+    }
+
+    @Benchmark
+    public Booking prepareBookingReflective() {
+        return prepare(modelMapper.map(createRequest, Booking.class));
+    }
+
+    @Benchmark
+    public Booking prepareBookingGenerated() {
+        return prepare(bookingMapper.toBooking(createRequest));
+    }
+
+    @Benchmark
+    public Booking updateReflective() {
+        Booking target = existing();
+        modelMapper.map(updateRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public Booking updateGenerated() {
+        Booking target = existing();
+        bookingMapper.update(updateRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public BookingEvent bookingEventReflective() {
+        BookingEvent event = modelMapper.map(booking, BookingEvent.class);
+        event.setPrice(99.5);
+        event.setTimestamp(LocalDateTime.now());
+        return event;
+    }
+
+    @Benchmark
+    public BookingEvent bookingEventGenerated() {
+        return bookingMapper.toBookingEvent(booking, 99.5);
+    }
+
+    private static Booking prepare(Booking booking) {
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setCreatedAt(Instant.now());
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+
+    private static Booking existing() {
+        Booking target = new Booking();
+        target.setId(1L);
+        target.setUserId(42L);
+        target.setEventId(7L);
+        target.setStatus(BookingStatus.CONFIRMED);
+        return target;
+    }
+}
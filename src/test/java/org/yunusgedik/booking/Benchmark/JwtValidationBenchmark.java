@@ -0,0 +1,79 @@
+package org.yunusgedik.booking.Benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.yunusgedik.booking.Security.JwtPrincipal;
+import org.yunusgedik.booking.Security.JwtPublicKeyProvider;
+import org.yunusgedik.booking.Security.JwtValidationService;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost: the old filter parsed and verified the token twice with a fresh parser,
+ * now it is verified once with a shared parser and then served from the cache until it expires.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private KeyPair keyPair;
+    private JwtParser sharedParser;
+    private JwtValidationService service;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(3072);
+        keyPair = generator.generateKeyPair();
+
+        token = Jwts.builder()
+            .setSubject("42")
+            .claim("roles", List.of("ROLE_USER"))
+            .setExpiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+            .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+            .compact();
+
+        sharedParser = Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build();
+        service = new JwtValidationService(
+            new JwtPublicKeyProvider(keyPair.getPublic()),
+            new SimpleMeterRegistry(),
+            10_000,
+            Duration.ofMinutes(15)
+        );
+        service.parse(token);
+    }
+
+    @Benchmark
+    public Object legacyTwoParses() {
+        Claims subject = Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build()
+            .parseClaimsJws(token).getBody();
+        Claims roles = Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build()
+            .parseClaimsJws(token).getBody();
+        return new Object[] {subject.getSubject(), roles.get("roles")};
+    }
+
+    @Benchmark
+    public Claims singleVerification() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedPrincipal() {
+        return service.parse(token);
+    }
+}
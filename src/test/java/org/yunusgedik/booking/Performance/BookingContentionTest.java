@@ -0,0 +1,175 @@
+package org.yunusgedik.booking.Performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Service.BookingService;
+import org.yunusgedik.booking.Service.EventServiceClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Create, confirm and cancel racing on a single event against real Postgres, Redis and Kafka. Asserts that
+ * the event is never oversold and writes throughput and latency per operation to target/perf, so runs of
+ * different commits can be compared.
+ *
+ * <pre>./mvnw -Pperformance test [-Dperf.label=$(git rev-parse --short HEAD)]</pre>
+ */
+@Tag("performance")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class BookingContentionTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int CAPACITY = 200;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 4_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer("apache/kafka-native:3.8.0");
+
+    @MockitoBean
+    private EventServiceClient eventServiceClient;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void singleEventUnderContention() throws Exception {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setTitle("Contended");
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        event.setPrice(10.0);
+        when(eventServiceClient.fetch(anyLong())).thenReturn(event);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", System.getProperty("perf.label", "local"));
+        report.put("timestamp", Instant.now().toString());
+        report.put("threads", THREADS);
+        report.put("capacity", CAPACITY);
+
+        ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+        report.put("create", run(ATTEMPTS, i -> {
+            Booking booking = bookingService.create(new BookingDTO(null, (long) i, EVENT_ID, null, null));
+            created.add(booking.getId());
+        }));
+        assertNotOversold();
+
+        List<Long> ids = new ArrayList<>(created);
+        report.put("cancel", run(ids.size(), i -> bookingService.cancel(ids.get(i))));
+        report.put("confirm", run(ids.size(), i -> bookingService.confirm(ids.get(i))));
+        assertNotOversold();
+
+        Path out = Path.of("target", "perf", "booking-contention.json");
+        Files.createDirectories(out.getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+    }
+
+    private void assertNotOversold() {
+        assertThat(bookingRepository.countByEventIdAndStatus(EVENT_ID, BookingStatus.CONFIRMED))
+            .isLessThanOrEqualTo(CAPACITY);
+    }
+
+    // Runs the operation count times from all threads at once. Rejections such as "Event is full" are
+    // expected under contention and counted separately, they still took a full trip through the service.
+    private Map<String, Object> run(int count, Consumer<Integer> operation) throws Exception {
+        long[] latencies = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                        long begin = System.nanoTime();
+                        try {
+                            operation.accept(i);
+                        } catch (RuntimeException e) {
+                            rejected.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("operations", count);
+            result.put("rejected", rejected.get());
+            result.put("throughputPerSecond", count * 1e9 / elapsed);
+            result.put("p50Millis", percentile(latencies, 0.50));
+            result.put("p99Millis", percentile(latencies, 0.99));
+            result.put("maxMillis", count == 0 ? 0 : latencies[count - 1] / 1e6);
+            return result;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,167 @@
+package org.yunusgedik.booking.Performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Service.ReactiveBookingService;
+import org.yunusgedik.booking.Service.ReactiveEventCache;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link BookingContentionTest} on the reactive profile: the same event, capacity, concurrency and operations,
+ * written to target/perf/booking-contention-reactive.json next to the MVC report of the same run. The
+ * concurrency is the number of operations in flight rather than the number of threads running them.
+ *
+ * <pre>./mvnw -Pperformance test [-Dperf.label=$(git rev-parse --short HEAD)]</pre>
+ */
+@Tag("performance")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveBookingContentionTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int CAPACITY = 200;
+    private static final int CONCURRENCY = 64;
+    private static final int ATTEMPTS = 4_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer("apache/kafka-native:3.8.0");
+
+    // The JDBC side comes from @ServiceConnection, R2DBC needs the same database spelled out
+    @DynamicPropertySource
+    static void r2dbc(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+            + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+
+    @MockitoBean
+    private ReactiveEventCache eventCache;
+
+    @Autowired
+    private ReactiveBookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void singleEventUnderContention() throws Exception {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setTitle("Contended");
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        event.setPrice(10.0);
+        when(eventCache.get(anyLong())).thenReturn(Mono.just(event));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", System.getProperty("perf.label", "local"));
+        report.put("timestamp", Instant.now().toString());
+        report.put("concurrency", CONCURRENCY);
+        report.put("capacity", CAPACITY);
+
+        ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+        report.put("create", run(ATTEMPTS, i -> bookingService
+            .create(new BookingDTO(null, (long) i, EVENT_ID, null, null))
+            .doOnNext(booking -> created.add(booking.getId()))));
+        assertNotOversold();
+
+        List<Long> ids = new ArrayList<>(created);
+        report.put("cancel", run(ids.size(), i -> bookingService.load(ids.get(i)).flatMap(bookingService::cancel)));
+        report.put("confirm", run(ids.size(), i -> bookingService.load(ids.get(i)).flatMap(bookingService::confirm)));
+        assertNotOversold();
+
+        Path out = Path.of("target", "perf", "booking-contention-reactive.json");
+        Files.createDirectories(out.getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+    }
+
+    private void assertNotOversold() {
+        assertThat(bookingRepository.countByEventIdAndStatus(EVENT_ID, BookingStatus.CONFIRMED))
+            .isLessThanOrEqualTo(CAPACITY);
+    }
+
+    // Keeps CONCURRENCY operations in flight until count have run, rejections are counted as in the MVC test
+    private Map<String, Object> run(int count, IntFunction<Mono<?>> operation) {
+        long[] latencies = new long[count];
+        AtomicInteger rejected = new AtomicInteger();
+        long begin = System.nanoTime();
+        Flux.range(0, count)
+            .flatMap(i -> Mono.defer(() -> {
+                long started = System.nanoTime();
+                return operation.apply(i)
+                    .onErrorResume(e -> {
+                        rejected.incrementAndGet();
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> latencies[i] = System.nanoTime() - started);
+            }), CONCURRENCY)
+            .blockLast();
+        long elapsed = System.nanoTime() - begin;
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operations", count);
+        result.put("rejected", rejected.get());
+        result.put("throughputPerSecond", count * 1e9 / elapsed);
+        result.put("p50Millis", percentile(latencies, 0.50));
+        result.put("p99Millis", percentile(latencies, 0.99));
+        result.put("maxMillis", count == 0 ? 0 : latencies[count - 1] / 1e6);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+    }
+}
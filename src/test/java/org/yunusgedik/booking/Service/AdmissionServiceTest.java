@@ -0,0 +1,166 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.yunusgedik.booking.Model.Admission.AdmissionTicket;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * The admission script against a real Redis. The bucket refills so slowly that only the tests hand out
+ * tokens, by writing them into the bucket the way a refill would.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AdmissionServiceTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int BURST = 2;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private AdmissionService admissionService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        admissionService = new AdmissionService(redisTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "ratePerSecond", 0.001);
+        ReflectionTestUtils.setField(admissionService, "burst", BURST);
+        ReflectionTestUtils.setField(admissionService, "ticketTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(admissionService, "maxRetryAfter", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void burstIsAdmittedAndEveryoneAfterItGetsATicketInOrder() {
+        admitsAll(BURST);
+
+        AdmissionTicket first = queued(null);
+        AdmissionTicket second = queued(null);
+
+        assertThat(first.ticket()).startsWith("1.");
+        assertThat(first.position()).isEqualTo(1);
+        assertThat(second.ticket()).startsWith("2.");
+        assertThat(second.position()).isEqualTo(2);
+        // Coming back early keeps the same ticket and place
+        assertThat(queued(first.ticket())).isEqualTo(first);
+    }
+
+    @Test
+    void ticketWithTheWrongNonceJoinsAtTheBack() {
+        admitsAll(BURST);
+        AdmissionTicket first = queued(null);
+        queued(null);
+
+        AdmissionTicket forged = queued(first.ticket().split("\\.")[0] + ".guessed");
+
+        assertThat(forged.ticket()).startsWith("3.").doesNotEndWith(".guessed");
+        assertThat(forged.position()).isEqualTo(3);
+    }
+
+    @Test
+    void ticketAtTheHeadIsAdmittedOnceWhenATokenComesIn() {
+        admitsAll(BURST);
+        AdmissionTicket first = queued(null);
+        AdmissionTicket second = queued(null);
+
+        refill(1);
+        assertThatCode(() -> admissionService.admit(EVENT_ID, first.ticket())).doesNotThrowAnyException();
+        assertThat(queued(second.ticket()).position()).isEqualTo(1);
+
+        // Used up, the same ticket again is a newcomer
+        AdmissionTicket replayed = queued(first.ticket());
+        assertThat(replayed.ticket()).startsWith("3.");
+        assertThat(replayed.position()).isEqualTo(2);
+    }
+
+    @Test
+    void tokenGoesToTheQueueBeforeANewcomer() {
+        admitsAll(BURST);
+        AdmissionTicket first = queued(null);
+
+        refill(1);
+        AdmissionTicket newcomer = queued(null);
+
+        assertThat(newcomer.position()).isEqualTo(1);
+        assertThatCode(() -> admissionService.admit(EVENT_ID, first.ticket())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void soldOutEventIsTurnedAwayWithoutATicket() {
+        admitsAll(BURST);
+        AdmissionTicket waiting = queued(null);
+        queued(null);
+        redisTemplate.opsForValue().set(SeatInventoryService.remainingKey(EVENT_ID), "0");
+
+        assertThatThrownBy(() -> admissionService.admit(EVENT_ID, null))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThatThrownBy(() -> admissionService.admit(EVENT_ID, waiting.ticket()))
+            .isInstanceOf(ResponseStatusException.class);
+        assertThat(redisTemplate.opsForValue().get("admission:{" + EVENT_ID + "}:issued")).isEqualTo("2");
+    }
+
+    @Test
+    void eventOverItsLoweredCapacityCountsAsSoldOut() {
+        redisTemplate.opsForValue().set(SeatInventoryService.remainingKey(EVENT_ID), "-3");
+
+        assertThatThrownBy(() -> admissionService.admit(EVENT_ID, null))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private void admitsAll(int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThatCode(() -> admissionService.admit(EVENT_ID, null)).doesNotThrowAnyException();
+        }
+    }
+
+    private AdmissionTicket queued(String ticket) {
+        AdmissionPendingException pending = catchThrowableOfType(AdmissionPendingException.class,
+            () -> admissionService.admit(EVENT_ID, ticket));
+        assertThat(pending).as("queued").isNotNull();
+        return pending.getTicket();
+    }
+
+    private void refill(int tokens) {
+        redisTemplate.opsForHash().put("admission:{" + EVENT_ID + "}:bucket", "tokens", String.valueOf(tokens));
+    }
+}
@@ -0,0 +1,79 @@
+package org.yunusgedik.booking.Service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingFilter;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Repository.BookingRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingServiceExportTest {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    private final BookingService bookingService = new BookingService(
+        bookingRepository,
+        mock(BookingMapper.class),
+        mock(EventCache.class),
+        mock(WaitlistQueue.class),
+        mock(BookingEventProducer.class),
+        mock(SeatInventoryService.class),
+        mock(TransactionTemplate.class),
+        mock(BookingRequestCache.class),
+        mock(BookingCache.class),
+        JsonMapper.builder().findAndAddModules().build(),
+        mock(BookingMetrics.class),
+        mock(HoldExpiryService.class)
+    );
+
+    @Test
+    void writesOneBookingPerLineWithNothingBetweenLines() throws Exception {
+        ReflectionTestUtils.setField(bookingService, "exportFetchSize", FETCH_SIZE);
+        BookingFilter filter = new BookingFilter(100L, null, null, null, null);
+        when(bookingRepository.streamAll(filter, FETCH_SIZE))
+            .thenReturn(Stream.of(booking(1L, BookingStatus.CONFIRMED), booking(2L, BookingStatus.WAITLISTED)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.export(filter, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "{\"id\":1,\"userId\":10,\"eventId\":100,\"status\":\"CONFIRMED\","
+                + "\"bookingTime\":null,\"createdAt\":null,\"holdExpiresAt\":null}\n"
+                + "{\"id\":2,\"userId\":10,\"eventId\":100,\"status\":\"WAITLISTED\","
+                + "\"bookingTime\":null,\"createdAt\":null,\"holdExpiresAt\":null}\n");
+    }
+
+    @Test
+    void writesNothingWithoutBookings() throws Exception {
+        ReflectionTestUtils.setField(bookingService, "exportFetchSize", FETCH_SIZE);
+        BookingFilter filter = new BookingFilter(null, null, null, null, null);
+        when(bookingRepository.streamAll(filter, FETCH_SIZE)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.export(filter, out);
+
+        assertThat(out.toByteArray()).isEmpty();
+    }
+
+    private static Booking booking(Long id, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId(10L);
+        booking.setEventId(100L);
+        booking.setStatus(status);
+        return booking;
+    }
+}
@@ -0,0 +1,163 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingCommand;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How {@link BookingService#createGroup} shares out the seats Redis grants to a group committed by
+ * {@link EventCommandProcessor}.
+ */
+class BookingServiceGroupCommitTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int CAPACITY = 100;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingMapper bookingMapper = mock(BookingMapper.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final BookingEventProducer bookingEventProducer = mock(BookingEventProducer.class);
+    private final HoldExpiryService holdExpiryService = mock(HoldExpiryService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicLong ids = new AtomicLong();
+
+    private final BookingService bookingService = new BookingService(
+        bookingRepository,
+        bookingMapper,
+        mock(EventCache.class),
+        mock(WaitlistQueue.class),
+        bookingEventProducer,
+        seatInventoryService,
+        new TransactionTemplate(transactionManager),
+        mock(BookingRequestCache.class),
+        mock(BookingCache.class),
+        null,
+        new BookingMetrics(ObservationRegistry.NOOP, new SimpleMeterRegistry()),
+        holdExpiryService
+    );
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookingService, "holdTtl", Duration.ofMinutes(10));
+        when(bookingMapper.toBooking(any(BookingDTO.class))).thenAnswer(invocation -> {
+            BookingDTO dto = invocation.getArgument(0);
+            Booking booking = new Booking();
+            booking.setUserId(dto.userId());
+            booking.setEventId(dto.eventId());
+            return booking;
+        });
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> saved = new ArrayList<>(invocation.<List<Booking>>getArgument(0));
+            saved.forEach(booking -> booking.setId(ids.incrementAndGet()));
+            return saved;
+        });
+    }
+
+    @Test
+    void grantedSeatsGoToTheFirstCommandsInQueueOrder() {
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 3)).thenReturn(2);
+
+        List<Booking> results = bookingService.createGroup(event(), List.of(create(11L), create(12L), create(13L)));
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getUserId()).isEqualTo(11L);
+        assertThat(results.get(1).getUserId()).isEqualTo(12L);
+        assertThat(results.get(2)).isNull();
+        assertThat(results.subList(0, 2)).allMatch(booking -> booking.getStatus() == BookingStatus.CONFIRMED);
+        verify(seatInventoryService).confirmSeats(EVENT_ID, CAPACITY, 2);
+        verify(seatInventoryService, never()).release(anyLong(), anyInt());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void holdsInTheGroupAreHeldAndScheduledForExpiry() {
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 2)).thenReturn(2);
+
+        List<Booking> results = bookingService.createGroup(event(), List.of(hold(11L), create(12L)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(BookingStatus.HELD);
+        assertThat(results.get(0).getHoldExpiresAt()).isNotNull();
+        assertThat(results.get(1).getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        verify(holdExpiryService).schedule(results.get(0));
+        verify(holdExpiryService, never()).schedule(results.get(1));
+    }
+
+    @Test
+    void nothingIsWrittenWhenNoSeatIsLeft() {
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 2)).thenReturn(0);
+
+        List<Booking> results = bookingService.createGroup(event(), List.of(create(11L), create(12L)));
+
+        assertThat(results).containsExactly(null, null);
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(seatInventoryService, never()).confirmSeats(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void theGroupsSeatsGoBackWhenItsTransactionFails() {
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 3)).thenReturn(3);
+        when(bookingRepository.saveAll(anyList())).thenThrow(new IllegalStateException("insert failed"));
+
+        assertThatThrownBy(() -> bookingService.createGroup(event(), List.of(create(11L), create(12L), create(13L))))
+            .hasMessage("insert failed");
+
+        verify(seatInventoryService).release(EVENT_ID, 3);
+        verify(bookingEventProducer, never()).sendBookingEvents(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void inactiveEventsTakeNoSeats() {
+        Event event = event();
+        event.setActive(false);
+
+        assertThatThrownBy(() -> bookingService.createGroup(event, List.of(create(11L))))
+            .hasMessage("Event is not active");
+
+        verify(seatInventoryService, never()).reserveUpTo(anyLong(), anyInt(), anyInt());
+    }
+
+    private static Event event() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        event.setPrice(10.0);
+        return event;
+    }
+
+    private static BookingCommand create(Long userId) {
+        return new BookingCommand(new BookingDTO(null, userId, EVENT_ID, null, null), false);
+    }
+
+    private static BookingCommand hold(Long userId) {
+        return new BookingCommand(new BookingDTO(null, userId, EVENT_ID, null, null), true);
+    }
+}
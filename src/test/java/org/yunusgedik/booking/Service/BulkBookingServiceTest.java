@@ -0,0 +1,205 @@
+package org.yunusgedik.booking.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Booking.BookingStatusChange;
+import org.yunusgedik.booking.Model.Bulk.BulkAction;
+import org.yunusgedik.booking.Model.Bulk.BulkBookingJob;
+import org.yunusgedik.booking.Model.Bulk.BulkJobStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Repository.BulkBookingJobRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The cursor of a {@link BulkBookingService} job. The repositories hand out one job instance, so what a chunk
+ * writes to it is what the next chunk, or a resume, reads back.
+ */
+class BulkBookingServiceTest {
+
+    private static final long JOB_ID = 1L;
+    private static final long EVENT_ID = 10L;
+    private static final int CHUNK_SIZE = 2;
+    private static final int CAPACITY = 100;
+
+    private final BulkBookingJobRepository jobRepository = mock(BulkBookingJobRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final EventCache eventCache = mock(EventCache.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final WaitlistQueue waitlistQueue = mock(WaitlistQueue.class);
+
+    private final BulkBookingService bulkBookingService = new BulkBookingService(
+        jobRepository,
+        bookingRepository,
+        mock(BookingMapper.class),
+        eventCache,
+        seatInventoryService,
+        waitlistQueue,
+        mock(BookingEventProducer.class),
+        mock(BookingCache.class),
+        new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        1
+    );
+
+    private BulkBookingJob job;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkBookingService, "chunkSize", CHUNK_SIZE);
+        when(eventCache.get(EVENT_ID)).thenReturn(event());
+        when(jobRepository.save(any(BulkBookingJob.class))).thenAnswer(invocation -> {
+            job = invocation.getArgument(0);
+            job.setId(JOB_ID);
+            return job;
+        });
+        when(jobRepository.findById(JOB_ID)).thenAnswer(invocation -> Optional.ofNullable(job));
+        when(jobRepository.findForUpdate(JOB_ID)).thenAnswer(invocation -> Optional.ofNullable(job));
+        when(jobRepository.findByEventIdAndStatus(EVENT_ID, BulkJobStatus.RUNNING)).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkBookingService.shutdown();
+    }
+
+    @Test
+    void cancelWalksTheBookingsChunkByChunkFromTheCursor() {
+        when(cancelChunkFrom(0L))
+            .thenReturn(changes(BookingStatus.CONFIRMED, 1, 2));
+        when(cancelChunkFrom(2L))
+            .thenReturn(changes(BookingStatus.HELD, 3, 4));
+        when(cancelChunkFrom(4L))
+            .thenReturn(changes(BookingStatus.WAITLISTED, 5));
+
+        bulkBookingService.start(EVENT_ID, BulkAction.CANCEL);
+        awaitStatus(BulkJobStatus.COMPLETED);
+
+        assertThat(job.getLastBookingId()).isEqualTo(5L);
+        assertThat(job.getProcessed()).isEqualTo(5);
+        verify(waitlistQueue).close(EVENT_ID);
+        var seats = inOrder(seatInventoryService);
+        seats.verify(seatInventoryService).releaseSeats(EVENT_ID, 2);
+        seats.verify(seatInventoryService).release(EVENT_ID, 2);
+        seats.verify(seatInventoryService).releaseSeats(EVENT_ID, 2);
+        seats.verify(seatInventoryService).release(EVENT_ID, 2);
+        verify(seatInventoryService).adjustWaitlisted(EVENT_ID, -1);
+    }
+
+    @Test
+    void resumeContinuesAFailedJobFromWhereItStopped() {
+        when(cancelChunkFrom(0L))
+            .thenReturn(changes(BookingStatus.CONFIRMED, 1, 2));
+        when(cancelChunkFrom(2L))
+            .thenThrow(new IllegalStateException("database down"))
+            .thenReturn(changes(BookingStatus.CONFIRMED, 3));
+
+        bulkBookingService.start(EVENT_ID, BulkAction.CANCEL);
+        awaitStatus(BulkJobStatus.FAILED);
+
+        assertThat(job.getError()).isEqualTo("database down");
+        assertThat(job.getLastBookingId()).isEqualTo(2L);
+        assertThat(job.getProcessed()).isEqualTo(2);
+
+        bulkBookingService.resume(JOB_ID);
+        awaitStatus(BulkJobStatus.COMPLETED);
+
+        assertThat(job.getError()).isNull();
+        assertThat(job.getLastBookingId()).isEqualTo(3L);
+        assertThat(job.getProcessed()).isEqualTo(3);
+        // The first chunk is never done twice
+        verify(bookingRepository).updateStatusChunk(eq(EVENT_ID), anyList(), any(), eq(0L), anyInt());
+    }
+
+    @Test
+    void confirmMovesOnlyAsManyBookingsAsThereAreSeats() {
+        // One seat is left, the next chunk finds the event full and the job completes there
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, CHUNK_SIZE)).thenReturn(1, 0);
+        when(bookingRepository.updateStatusChunk(eq(EVENT_ID), anyList(), eq(BookingStatus.CONFIRMED), eq(0L), eq(1)))
+            .thenReturn(changes(BookingStatus.WAITLISTED, 1));
+
+        bulkBookingService.start(EVENT_ID, BulkAction.CONFIRM);
+        awaitStatus(BulkJobStatus.COMPLETED);
+
+        assertThat(job.getLastBookingId()).isEqualTo(1L);
+        assertThat(job.getProcessed()).isEqualTo(1);
+        verify(bookingRepository, never()).updateStatusChunk(anyLong(), anyList(), any(), eq(1L), anyInt());
+        // Counted before the rows move, so a first-time seed of event_inventory does not count them twice
+        var order = inOrder(seatInventoryService, bookingRepository);
+        order.verify(seatInventoryService).confirmSeats(EVENT_ID, CAPACITY, 1);
+        order.verify(bookingRepository).updateStatusChunk(
+            eq(EVENT_ID), anyList(), eq(BookingStatus.CONFIRMED), eq(0L), eq(1));
+        order.verify(seatInventoryService).adjustWaitlisted(EVENT_ID, -1);
+        verify(seatInventoryService, never()).release(anyLong(), anyInt());
+        verify(waitlistQueue, never()).close(anyLong());
+    }
+
+    @Test
+    void confirmGivesBackSeatsItCountedButFoundNobodyFor() {
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, CHUNK_SIZE)).thenReturn(2);
+        when(bookingRepository.updateStatusChunk(eq(EVENT_ID), anyList(), eq(BookingStatus.CONFIRMED), eq(0L), eq(2)))
+            .thenReturn(changes(BookingStatus.WAITLISTED, 1));
+
+        bulkBookingService.start(EVENT_ID, BulkAction.CONFIRM);
+        awaitStatus(BulkJobStatus.COMPLETED);
+
+        var order = inOrder(seatInventoryService, bookingRepository);
+        order.verify(seatInventoryService).confirmSeats(EVENT_ID, CAPACITY, 2);
+        order.verify(bookingRepository).updateStatusChunk(
+            eq(EVENT_ID), anyList(), eq(BookingStatus.CONFIRMED), eq(0L), eq(2));
+        order.verify(seatInventoryService).releaseSeats(EVENT_ID, 1);
+        order.verify(seatInventoryService).release(EVENT_ID, 1);
+    }
+
+    private List<BookingStatusChange> cancelChunkFrom(long cursor) {
+        return bookingRepository.updateStatusChunk(
+            eq(EVENT_ID), anyList(), eq(BookingStatus.CANCELLED), eq(cursor), eq(CHUNK_SIZE));
+    }
+
+    private void awaitStatus(BulkJobStatus status) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> job.getStatus() == status);
+    }
+
+    private static List<BookingStatusChange> changes(BookingStatus previous, long... ids) {
+        return LongStream.of(ids)
+            .mapToObj(id -> {
+                Booking booking = new Booking();
+                booking.setId(id);
+                booking.setEventId(EVENT_ID);
+                return new BookingStatusChange(booking, previous);
+            })
+            .toList();
+    }
+
+    private static Event event() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        event.setPrice(10.0);
+        return event;
+    }
+}
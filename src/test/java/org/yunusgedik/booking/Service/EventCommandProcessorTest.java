@@ -0,0 +1,199 @@
+package org.yunusgedik.booking.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingCommand;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Group commit through {@link EventCommandProcessor} with a single writer. A command for another event keeps
+ * the writer busy while the commands under test queue up behind it.
+ */
+class EventCommandProcessorTest {
+
+    private static final long BUSY_EVENT = 1L;
+    private static final long EVENT_ID = 2L;
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final EventCache eventCache = mock(EventCache.class);
+    private final CountDownLatch writerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+    private final List<Thread> callers = new ArrayList<>();
+    private EventCommandProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        when(eventCache.get(anyLong())).thenAnswer(invocation -> event(invocation.getArgument(0)));
+        when(bookingService.createGroup(forEvent(BUSY_EVENT), anyList()))
+            .thenAnswer(invocation -> {
+                writerBusy.countDown();
+                releaseWriter.await();
+                return List.of(booking(0L));
+            });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWriter.countDown();
+        processor.shutdown();
+    }
+
+    @Test
+    void commandsQueuedForOneEventCommitAsOneGroup() throws Exception {
+        start(Duration.ofSeconds(10));
+        BookingCommand first = command(11L);
+        BookingCommand second = command(12L);
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(first, second))))
+            .thenReturn(Arrays.asList(booking(1L), null));
+
+        occupyWriter();
+        CompletableFuture<Booking> granted = submit(() -> processor.create(first.booking()));
+        awaitQueued();
+        CompletableFuture<Booking> full = submit(() -> processor.create(second.booking()));
+        awaitQueued();
+        releaseWriter.countDown();
+
+        assertThat(granted.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> full.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseMessage("Event is full");
+    }
+
+    @Test
+    void failedGroupIsRetriedOneCommandAtATime() throws Exception {
+        start(Duration.ofSeconds(10));
+        BookingCommand good = command(11L);
+        BookingCommand bad = command(12L);
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(good, bad))))
+            .thenThrow(new IllegalArgumentException("bad booking"));
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(good))))
+            .thenReturn(List.of(booking(1L)));
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(bad))))
+            .thenThrow(new IllegalArgumentException("bad booking"));
+
+        occupyWriter();
+        CompletableFuture<Booking> goodResult = submit(() -> processor.create(good.booking()));
+        awaitQueued();
+        CompletableFuture<Booking> badResult = submit(() -> processor.create(bad.booking()));
+        awaitQueued();
+        releaseWriter.countDown();
+
+        assertThat(goodResult.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> badResult.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseMessage("bad booking");
+    }
+
+    @Test
+    void commandStillQueuedAfterTheWaitIsTurnedAwayAndNeverCommitted() throws Exception {
+        start(Duration.ofMillis(200));
+        BookingCommand late = command(11L);
+
+        occupyWriter();
+        assertThatThrownBy(() -> processor.create(late.booking()))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        releaseWriter.countDown();
+
+        // A command submitted after it is committed, so the writer has gone past the abandoned one
+        BookingCommand next = command(12L);
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(next))))
+            .thenReturn(List.of(booking(2L)));
+        assertThat(processor.create(next.booking()).getId()).isEqualTo(2L);
+        verify(bookingService, never()).createGroup(any(), eq(List.of(late)));
+    }
+
+    @Test
+    void writerKeepsRunningAfterAnError() {
+        start(Duration.ofSeconds(10));
+        BookingCommand fatal = command(11L);
+        BookingCommand next = command(12L);
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(fatal))))
+            .thenThrow(new AssertionError("writer failure"));
+        when(bookingService.createGroup(forEvent(EVENT_ID), eq(List.of(next))))
+            .thenReturn(List.of(booking(2L)));
+
+        assertThatThrownBy(() -> processor.create(fatal.booking())).hasRootCauseMessage("writer failure");
+        assertThat(processor.create(next.booking()).getId()).isEqualTo(2L);
+    }
+
+    private void start(Duration waitTimeout) {
+        processor = new EventCommandProcessor(bookingService, eventCache, true, 1, 100, 50, waitTimeout);
+    }
+
+    private void occupyWriter() throws InterruptedException {
+        submit(() -> processor.create(new BookingDTO(null, 1L, BUSY_EVENT, null, null)));
+        assertThat(writerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CompletableFuture<Booking> submit(Supplier<Booking> request) {
+        CompletableFuture<Booking> result = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                result.complete(request.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        callers.add(caller);
+        caller.start();
+        return result;
+    }
+
+    // A caller parks once its command is in the queue, waiting after each submit keeps them in order
+    private void awaitQueued() {
+        await().atMost(Duration.ofSeconds(5)).until(() -> callers.stream().skip(1).allMatch(caller ->
+            caller.getState() == Thread.State.WAITING || caller.getState() == Thread.State.TIMED_WAITING));
+    }
+
+    // Null safe, stubbing a second createGroup calls the mock with nulls against the first stub
+    private static Event forEvent(long id) {
+        return argThat(event -> event != null && event.getId() == id);
+    }
+
+    private static BookingCommand command(Long userId) {
+        return new BookingCommand(new BookingDTO(null, userId, EVENT_ID, null, null), false);
+    }
+
+    private static Event event(Long id) {
+        Event event = new Event();
+        event.setId(id);
+        event.setCapacity(100);
+        event.setActive(true);
+        return event;
+    }
+
+    private static Booking booking(Long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        return booking;
+    }
+}
@@ -0,0 +1,146 @@
+package org.yunusgedik.booking.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingDTO;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Model.Event.Event;
+import org.yunusgedik.booking.Repository.BookingRepository;
+import org.yunusgedik.booking.Repository.EventInventoryRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Confirms and cancels of holds landing on either side of their expiry while the sweep runs, against real
+ * Postgres, Redis and Kafka. Whoever wins, every seat is counted exactly once in event_inventory and in Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = "booking.hold.ttl=1s")
+class HoldExpiryRaceTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int CAPACITY = 40;
+    private static final Duration HOLD_TTL = Duration.ofSeconds(1);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer("apache/kafka-native:3.8.0");
+
+    @MockitoBean
+    private EventServiceClient eventServiceClient;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private HoldExpiryService holdExpiryService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EventInventoryRepository eventInventoryRepository;
+
+    @Test
+    void confirmAndCancelRacingExpiryCountEverySeatOnce() throws Exception {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setTitle("Racing");
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        event.setPrice(10.0);
+        when(eventServiceClient.fetch(anyLong())).thenReturn(event);
+
+        List<Booking> holds = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            holds.add(bookingService.hold(new BookingDTO(null, (long) i, EVENT_ID, null, null)));
+        }
+
+        // Each hold is confirmed or cancelled somewhere between now and well after it expired. Seats freed by
+        // expiry are at least as many as confirms of expired bookings take again, so nothing is waitlisted.
+        Map<Long, BookingStatus> won = new ConcurrentHashMap<>();
+        Random random = new Random(42);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> requests = new ArrayList<>();
+        for (Booking hold : holds) {
+            boolean confirm = random.nextBoolean();
+            long delay = random.nextLong(2 * HOLD_TTL.toMillis());
+            requests.add(executor.submit(() -> {
+                TimeUnit.MILLISECONDS.sleep(delay);
+                try {
+                    Booking booking = confirm
+                        ? bookingService.confirm(hold.getId())
+                        : bookingService.cancel(hold.getId());
+                    won.put(hold.getId(), booking.getStatus());
+                } catch (ResponseStatusException e) {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                }
+                return null;
+            }));
+        }
+        AtomicBoolean racing = new AtomicBoolean(true);
+        Future<?> sweeper = executor.submit(() -> {
+            while (racing.get()) {
+                holdExpiryService.sweep();
+            }
+            return null;
+        });
+        for (Future<?> request : requests) {
+            request.get(30, TimeUnit.SECONDS);
+        }
+        racing.set(false);
+        sweeper.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Whatever is still held has expired by now
+        Instant lastExpiry = holds.stream().map(Booking::getHoldExpiresAt).max(Instant::compareTo).orElseThrow();
+        TimeUnit.MILLISECONDS.sleep(Math.max(0, Duration.between(Instant.now(), lastExpiry).toMillis() + 10));
+        holdExpiryService.sweep();
+
+        won.forEach((id, status) -> assertThat(bookingRepository.findById(id).orElseThrow().getStatus())
+            .as("booking %d", id)
+            .isEqualTo(status));
+        assertThat(bookingRepository.countByEventIdAndStatus(EVENT_ID, BookingStatus.HELD)).isZero();
+        int confirmed = bookingRepository.countByEventIdAndStatus(EVENT_ID, BookingStatus.CONFIRMED);
+        assertThat(confirmed).isLessThanOrEqualTo(CAPACITY);
+        assertThat(eventInventoryRepository.findConfirmed(EVENT_ID)).contains(confirmed);
+        assertThat(seatInventoryService.remaining(EVENT_ID, CAPACITY)).isEqualTo((long) (CAPACITY - confirmed));
+    }
+}
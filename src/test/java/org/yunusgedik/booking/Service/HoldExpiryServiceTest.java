@@ -0,0 +1,145 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yunusgedik.booking.Helper.BookingMapper;
+import org.yunusgedik.booking.Model.Booking.Booking;
+import org.yunusgedik.booking.Model.Booking.BookingStatus;
+import org.yunusgedik.booking.Repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldExpiryServiceTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> holds = mock(ZSetOperations.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final BookingEventProducer bookingEventProducer = mock(BookingEventProducer.class);
+    private final BookingCache bookingCache = mock(BookingCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final HoldExpiryService holdExpiryService = new HoldExpiryService(
+        redisTemplate,
+        bookingRepository,
+        mock(BookingMapper.class),
+        seatInventoryService,
+        bookingEventProducer,
+        bookingCache,
+        new TransactionTemplate(transactionManager),
+        new SimpleMeterRegistry()
+    );
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(holdExpiryService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(holdExpiryService, "backstopGrace", Duration.ofMinutes(1));
+        when(redisTemplate.opsForZSet()).thenReturn(holds);
+    }
+
+    @Test
+    void expiresDueHoldsAndGivesTheirSeatsBackOncePerEvent() {
+        claims(List.of("1", "2", "3"), List.of());
+        // 2 was confirmed before the sweep got to it, the UPDATE skips it
+        when(bookingRepository.expireHolds(eq(List.of(1L, 2L, 3L)), any(Instant.class)))
+            .thenReturn(List.of(expired(1L, 10L), expired(3L, 10L)));
+
+        holdExpiryService.sweep();
+
+        verify(seatInventoryService).releaseSeats(10L, 2);
+        verify(seatInventoryService).release(10L, 2);
+        verify(bookingEventProducer).sendBookingEvents(anyList());
+        verify(bookingCache).evictAll(List.of(1L, 3L));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void keepsSweepingWhileBatchesComeBackFull() {
+        claims(List.of("1", "2", "3"), List.of("4"));
+        when(bookingRepository.expireHolds(eq(List.of(1L, 2L, 3L)), any(Instant.class)))
+            .thenReturn(List.of(expired(1L, 10L), expired(2L, 10L), expired(3L, 20L)));
+        when(bookingRepository.expireHolds(eq(List.of(4L)), any(Instant.class)))
+            .thenReturn(List.of(expired(4L, 20L)));
+
+        holdExpiryService.sweep();
+
+        verify(seatInventoryService).release(10L, 2);
+        verify(seatInventoryService, times(2)).release(20L, 1);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(), any());
+    }
+
+    @Test
+    void putsClaimedHoldsBackWhenExpiringThemFails() {
+        claims(List.of("1", "2"));
+        when(bookingRepository.expireHolds(anyList(), any(Instant.class)))
+            .thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(holdExpiryService::sweep).hasMessage("database down");
+
+        verify(holds).add(eq(HoldExpiryService.HOLDS_KEY), eq("1"), anyDouble());
+        verify(holds).add(eq(HoldExpiryService.HOLDS_KEY), eq("2"), anyDouble());
+        verify(seatInventoryService, never()).release(anyLong(), anyInt());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void backstopExpiresHoldsRedisLostTrackOf() {
+        when(bookingRepository.findExpiredHoldIds(any(Instant.class), eq(BATCH_SIZE))).thenReturn(List.of(7L));
+        when(bookingRepository.expireHolds(eq(List.of(7L)), any(Instant.class)))
+            .thenReturn(List.of(expired(7L, 30L)));
+
+        holdExpiryService.sweepDatabase();
+
+        verify(seatInventoryService).releaseSeats(30L, 1);
+        verify(seatInventoryService).release(30L, 1);
+    }
+
+    @Test
+    void doesNothingWithoutDueHolds() {
+        claims(List.of());
+
+        holdExpiryService.sweep();
+
+        verify(bookingRepository, never()).expireHolds(anyList(), any(Instant.class));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @SafeVarargs
+    private void claims(List<String> first, List<String>... then) {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(HoldExpiryService.HOLDS_KEY)), any(), any()))
+            .thenReturn(first, (Object[]) then);
+    }
+
+    private static Booking expired(Long id, Long eventId) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setEventId(eventId);
+        booking.setStatus(BookingStatus.EXPIRED);
+        return booking;
+    }
+}
@@ -0,0 +1,106 @@
+package org.yunusgedik.booking.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.yunusgedik.booking.Lock.LockHandle;
+import org.yunusgedik.booking.Lock.LockManager;
+import org.yunusgedik.booking.Model.Event.Event;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitlistPromoterTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final int CAPACITY = 100;
+    private static final int BATCH_SIZE = 10;
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final WaitlistQueue waitlistQueue = mock(WaitlistQueue.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final EventCache eventCache = mock(EventCache.class);
+    private final LockManager lockManager = mock(LockManager.class);
+    private final LockHandle lock = mock(LockHandle.class);
+
+    private final WaitlistPromoter waitlistPromoter = new WaitlistPromoter(
+        bookingService,
+        waitlistQueue,
+        seatInventoryService,
+        eventCache,
+        lockManager,
+        new BookingMetrics(ObservationRegistry.NOOP, new SimpleMeterRegistry())
+    );
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitlistPromoter, "batchSize", BATCH_SIZE);
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setCapacity(CAPACITY);
+        event.setActive(true);
+        when(eventCache.get(EVENT_ID)).thenReturn(event);
+        when(lockManager.acquire(any())).thenReturn(lock);
+        when(lock.isValid()).thenReturn(true);
+    }
+
+    @Test
+    void emptyWaitlistTakesNoSeats() {
+        when(seatInventoryService.remaining(EVENT_ID, CAPACITY)).thenReturn(50L);
+        when(waitlistQueue.pop(EVENT_ID, BATCH_SIZE)).thenReturn(List.of());
+
+        assertThat(waitlistPromoter.promote(EVENT_ID)).isZero();
+
+        verify(seatInventoryService, never()).reserveUpTo(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void popsNoMoreThanTheFreeSeatsAndReservesOnlyForCandidates() {
+        when(seatInventoryService.remaining(EVENT_ID, CAPACITY)).thenReturn(3L);
+        when(waitlistQueue.pop(EVENT_ID, 3)).thenReturn(List.of(entry(7L), entry(8L)));
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 2)).thenReturn(2);
+        when(bookingService.confirmWaitlisted(List.of(7L, 8L), eventCache.get(EVENT_ID))).thenReturn(2);
+
+        assertThat(waitlistPromoter.promote(EVENT_ID)).isEqualTo(2);
+
+        verify(seatInventoryService, never()).release(anyLong(), anyInt());
+    }
+
+    @Test
+    void candidatesBeyondTheGrantedSeatsGoBackToTheQueue() {
+        when(seatInventoryService.remaining(EVENT_ID, CAPACITY)).thenReturn(3L);
+        List<TypedTuple<String>> candidates = List.of(entry(7L), entry(8L), entry(9L));
+        when(waitlistQueue.pop(EVENT_ID, 3)).thenReturn(candidates);
+        // A create took a seat between the peek and the reservation
+        when(seatInventoryService.reserveUpTo(EVENT_ID, CAPACITY, 3)).thenReturn(2);
+        when(bookingService.confirmWaitlisted(List.of(7L, 8L), eventCache.get(EVENT_ID))).thenReturn(2);
+
+        assertThat(waitlistPromoter.promote(EVENT_ID)).isEqualTo(2);
+
+        verify(waitlistQueue).pushBack(EVENT_ID, List.of(entry(9L)));
+    }
+
+    @Test
+    void soldOutEventDoesNotTouchTheQueue() {
+        when(seatInventoryService.remaining(EVENT_ID, CAPACITY)).thenReturn(0L);
+
+        assertThat(waitlistPromoter.promote(EVENT_ID)).isZero();
+
+        verify(waitlistQueue, never()).pop(anyLong(), anyInt());
+    }
+
+    private static TypedTuple<String> entry(Long bookingId) {
+        return TypedTuple.of(bookingId.toString(), bookingId.doubleValue());
+    }
+}